@@ -0,0 +1,47 @@
+package com.restaurant.shifttracker.service;
+
+import org.openjdk.jmh.annotations.*;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The in-memory part of the labor analytics: sweep, heatmap and overtime over
+ * a year of five-shifts-a-week data, with the shift arrays already loaded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LaborAnalyticsBenchmark {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Param({"50", "500"})
+    public int employees;
+
+    private LaborAnalyticsService.ShiftIntervals shifts;
+    private int rangeMinutes;
+    private int[] cellOfBucket;
+
+    @Setup
+    public void setUp() {
+        rangeMinutes = 366 * 24 * 60;
+        cellOfBucket = LaborAnalyticsService.cellsOfBuckets(FROM, rangeMinutes);
+        shifts = new LaborAnalyticsService.ShiftIntervals();
+        for (int e = 0; e < employees; e++) {
+            for (int day = 0; day < 366; day++) {
+                if ((day + e) % 7 < 5) {
+                    int start = day * 24 * 60 + 6 * 60 + (e * 37) % (12 * 60);
+                    shifts.add(e, start, Math.min(rangeMinutes, start + 7 * 60 + (day * e) % 180));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public LaborAnalyticsService.Result compute() {
+        return LaborAnalyticsService.compute(shifts, rangeMinutes, cellOfBucket, 0, 40 * 60);
+    }
+}
@@ -0,0 +1,42 @@
+package com.restaurant.shifttracker.service;
+
+import com.restaurant.shifttracker.dto.ShiftResponse;
+import com.restaurant.shifttracker.entity.Employee;
+import com.restaurant.shifttracker.entity.Shift;
+import org.openjdk.jmh.annotations.*;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ShiftMappingBenchmark {
+
+    private Shift shift;
+
+    @Setup
+    public void setUp() {
+        Employee employee = Employee.builder()
+                .id(1L)
+                .name("Benchmark Employee")
+                .username("benchmark")
+                .role(Employee.Role.EMPLOYEE)
+                .build();
+        LocalDateTime clockIn = LocalDateTime.of(2025, 1, 6, 9, 0);
+        shift = Shift.builder()
+                .id(1L)
+                .employee(employee)
+                .clockIn(clockIn)
+                .clockOut(clockIn.plusHours(8))
+                .totalMinutes(480)
+                .build();
+    }
+
+    @Benchmark
+    public ShiftResponse mapToResponse() {
+        return ShiftService.mapToResponse(shift);
+    }
+}
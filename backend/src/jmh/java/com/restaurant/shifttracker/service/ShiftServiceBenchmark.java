@@ -0,0 +1,110 @@
+package com.restaurant.shifttracker.service;
+
+import com.restaurant.shifttracker.ShiftTrackerApplication;
+import com.restaurant.shifttracker.dto.ShiftResponse;
+import com.restaurant.shifttracker.dto.WeeklyHoursResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end service calls against an in-memory H2 database (MySQL mode)
+ * seeded with shiftCount closed shifts in the current week.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ShiftServiceBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    public int shiftCount;
+
+    private ConfigurableApplicationContext context;
+    private ShiftService shiftService;
+    private List<Long> employeeIds;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShiftTrackerApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                    "spring.datasource.url=jdbc:h2:mem:bench" + shiftCount + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                    "spring.jpa.properties.hibernate.generate_statistics=false",
+                    "logging.level.root=WARN")
+                .run();
+        shiftService = context.getBean(ShiftService.class);
+        employeeIds = seed(context.getBean(JdbcTemplate.class));
+        context.getBean(WeeklyHoursSummaryService.class).rebuildWeeks(1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ShiftResponse clockInAndOut() {
+        Long employeeId = employeeIds.get(next++ % employeeIds.size());
+        shiftService.clockIn(employeeId);
+        return shiftService.clockOut(employeeId);
+    }
+
+    @Benchmark
+    public List<WeeklyHoursResponse> weeklyReportWithShifts() {
+        return shiftService.getAllEmployeesWeeklyHours(true);
+    }
+
+    @Benchmark
+    public List<WeeklyHoursResponse> weeklyReportTotalsOnly() {
+        return shiftService.getAllEmployeesWeeklyHours(false);
+    }
+
+    private List<Long> seed(JdbcTemplate jdbcTemplate) {
+        int employees = Math.min(500, Math.max(10, shiftCount / 100));
+        List<Object[]> employeeRows = new ArrayList<>();
+        // Explicit ids, clear of the range Hibernate allocates from employee_seq.
+        for (int e = 0; e < employees; e++) {
+            employeeRows.add(new Object[]{1_000_000_000L + e, "Employee " + e, "bench-" + e, "unused"});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO employees (id, location_id, name, username, password, role, is_active) VALUES (?, 1, ?, ?, ?, 'EMPLOYEE', TRUE)",
+                employeeRows);
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM employees WHERE role = 'EMPLOYEE' ORDER BY id", Long.class);
+
+        LocalDateTime monday = LocalDateTime.now()
+                .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                .withHour(0).withMinute(0).withSecond(0).withNano(0);
+        // Explicit ids, well clear of the range Hibernate allocates from shift_seq.
+        List<Object[]> shiftRows = new ArrayList<>();
+        for (int i = 0; i < shiftCount; i++) {
+            LocalDateTime clockIn = monday.plusSeconds(i % 86_400);
+            shiftRows.add(new Object[]{1_000_000_000L + i, ids.get(i % ids.size()), Timestamp.valueOf(clockIn),
+                    Timestamp.valueOf(clockIn.plusMinutes(1)), 1});
+            if (shiftRows.size() == 10_000) {
+                insertShifts(jdbcTemplate, shiftRows);
+            }
+        }
+        insertShifts(jdbcTemplate, shiftRows);
+        return ids;
+    }
+
+    private void insertShifts(JdbcTemplate jdbcTemplate, List<Object[]> rows) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO shifts (id, employee_id, location_id, clock_in, clock_out, total_minutes) VALUES (?, ?, 1, ?, ?, ?)", rows);
+        rows.clear();
+    }
+}
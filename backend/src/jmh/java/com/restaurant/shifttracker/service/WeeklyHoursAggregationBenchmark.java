@@ -0,0 +1,66 @@
+package com.restaurant.shifttracker.service;
+
+import com.restaurant.shifttracker.dto.ShiftResponse;
+import com.restaurant.shifttracker.util.Hours;
+import org.openjdk.jmh.annotations.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * The in-memory part of the weekly report: group a week's shifts by employee
+ * and reduce their hours, as getAllEmployeesWeeklyHours did per request before
+ * totals moved to the summary table. Compares the former per-shift BigDecimal
+ * hours with summing whole minutes as longs and converting once per employee.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class WeeklyHoursAggregationBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    public int shiftCount;
+
+    private List<ShiftResponse> shifts;
+
+    @Setup
+    public void setUp() {
+        int employees = Math.max(1, shiftCount / 20);
+        LocalDateTime monday = LocalDateTime.of(2025, 1, 6, 0, 0);
+        shifts = new ArrayList<>(shiftCount);
+        for (int i = 0; i < shiftCount; i++) {
+            LocalDateTime clockIn = monday.plusMinutes(i % 10_000);
+            shifts.add(new ShiftResponse((long) i, (long) (i % employees), "Employee " + (i % employees),
+                    clockIn, clockIn.plusHours(8), 480 + i % 60, 1L));
+        }
+    }
+
+    @Benchmark
+    public Map<Long, BigDecimal> groupAndSumHours() {
+        return shifts.stream()
+                .filter(s -> s.getTotalMinutes() != null)
+                .collect(Collectors.groupingBy(ShiftResponse::getEmployeeId,
+                        Collectors.reducing(BigDecimal.ZERO, ShiftResponse::getTotalHours, BigDecimal::add)));
+    }
+
+    @Benchmark
+    public Map<Long, BigDecimal> groupAndSumMinutes() {
+        Map<Long, long[]> minutes = new HashMap<>();
+        for (ShiftResponse shift : shifts) {
+            if (shift.getTotalMinutes() != null) {
+                minutes.computeIfAbsent(shift.getEmployeeId(), id -> new long[1])[0] += shift.getTotalMinutes();
+            }
+        }
+        Map<Long, BigDecimal> totals = new HashMap<>(minutes.size() * 2);
+        minutes.forEach((id, total) -> totals.put(id, Hours.fromMinutes(total[0])));
+        return totals;
+    }
+}
@@ -0,0 +1,80 @@
+package com.restaurant.shifttracker.config;
+
+import com.restaurant.shifttracker.util.ConcurrencyLimiter;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * DataSource that takes a limiter permit per borrowed connection and gives it
+ * back when the connection is closed, so waiting callers queue (and are
+ * measured) here instead of piling onto the pool.
+ */
+class BoundedDataSource extends DelegatingDataSource {
+    
+    private final ConcurrencyLimiter limiter;
+    private final long acquireTimeoutMs;
+    
+    BoundedDataSource(DataSource target, ConcurrencyLimiter limiter, long acquireTimeoutMs) {
+        super(target);
+        this.limiter = limiter;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return bound(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            limiter.release();
+            throw e;
+        }
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return bound(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            limiter.release();
+            throw e;
+        }
+    }
+    
+    private void acquire() throws SQLException {
+        if (!limiter.acquire(acquireTimeoutMs)) {
+            throw new SQLTransientConnectionException(
+                    "Timed out after " + acquireTimeoutMs + "ms waiting for a database permit");
+        }
+    }
+    
+    private Connection bound(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+                        try {
+                            connection.close();
+                        } finally {
+                            limiter.release();
+                        }
+                        return null;
+                    }
+                    if (method.getName().equals("close")) {
+                        return null;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
@@ -0,0 +1,57 @@
+package com.restaurant.shifttracker.config;
+
+import com.restaurant.shifttracker.util.ConcurrencyLimiter;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Caps concurrent JDBC work. Meant for virtual-thread mode
+ * (spring.threads.virtual.enabled), where request threads are no longer a
+ * natural limit; on by default whenever that mode is. BCrypt is bounded
+ * separately by PasswordHashingService.
+ */
+@Configuration
+@ConditionalOnProperty(name = "shift.concurrency.limits.enabled", havingValue = "true")
+public class ConcurrencyConfig {
+    
+    @Bean
+    static BeanPostProcessor boundedResourcesPostProcessor(Environment environment,
+                                                           ObjectProvider<MeterRegistry> meterRegistry) {
+        long acquireTimeoutMs = environment.getProperty("shift.concurrency.acquire-timeout-ms", Long.class, 30000L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof BoundedDataSource)) {
+                    int permits = environment.getProperty("shift.concurrency.db-permits", Integer.class, 0);
+                    if (permits <= 0) {
+                        // Match the pool so waiters queue here, where the wait is measured
+                        permits = poolSize(dataSource);
+                    }
+                    return new BoundedDataSource(dataSource,
+                            new ConcurrencyLimiter("jdbc", permits, meterRegistry.getObject()), acquireTimeoutMs);
+                }
+                return bean;
+            }
+        };
+    }
+    
+    // The primary's pool when behind a routing or proxy DataSource
+    private static int poolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            // fall through
+        }
+        return 10;
+    }
+}
@@ -0,0 +1,32 @@
+package com.restaurant.shifttracker.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * CBOR as an alternative to JSON for clients that send Accept: application/cbor.
+ * Built from Spring Boot's Jackson builder so dates and naming match the JSON
+ * output; JSON stays the default for everyone else.
+ *
+ * Enum request parameters bind case-insensitively, as configuration properties
+ * do, so format=ndjson and action=flag work; an unknown value is a 400.
+ */
+@Configuration
+public class ContentFormatConfig implements WebMvcConfigurer {
+    
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        ApplicationConversionService.addApplicationConverters(registry);
+    }
+    
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.createXmlMapper(false).factory(new CBORFactory()).build());
+    }
+}
@@ -2,6 +2,7 @@ package com.restaurant.shifttracker.config;
 
 import com.restaurant.shifttracker.entity.Employee;
 import com.restaurant.shifttracker.repository.EmployeeRepository;
+import com.restaurant.shifttracker.util.LocationContext;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -19,6 +20,7 @@ public class DataInitializer implements CommandLineRunner {
         // Check if admin exists
         if (!employeeRepository.existsByUsername("admin")) {
             Employee admin = Employee.builder()
+                    .locationId(LocationContext.DEFAULT_LOCATION_ID)
                     .name("Admin")
                     .username("admin")
                     .password(passwordEncoder.encode("admin123"))
@@ -0,0 +1,88 @@
+package com.restaurant.shifttracker.config;
+
+import com.restaurant.shifttracker.entity.Employee;
+import com.restaurant.shifttracker.entity.Shift;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+import java.sql.DatabaseMetaData;
+
+/**
+ * Moves the employee and shift id sequences past the ids already in use.
+ *
+ * Databases created while ids were AUTO_INCREMENT get the sequences (a
+ * next_val table each on MySQL) from ddl-auto=update, starting at 1, and every
+ * insert would hit an existing primary key until the sequence caught up. This
+ * runs once the schema is in place and before anything inserts. A sequence is
+ * only ever moved forward, so it is a no-op on an up-to-date database and safe
+ * with several instances starting at once.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class IdSequenceSeeder {
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @PostConstruct
+    public void seed() {
+        boolean mysql = isMySql();
+        seed(Employee.class, mysql);
+        seed(Shift.class, mysql);
+    }
+    
+    private void seed(Class<?> entity, boolean mysql) {
+        SequenceGenerator generator = sequenceGenerator(entity);
+        String table = entity.getAnnotation(Table.class).name();
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+        if (maxId == null) {
+            return;
+        }
+        // Hibernate's pooled optimizer hands out the block below the value it
+        // reads, so the sequence has to be a whole block past the highest id
+        long floor = maxId + generator.allocationSize() + 1;
+        String sequence = generator.sequenceName();
+        
+        boolean moved;
+        if (mysql) {
+            moved = jdbcTemplate.update("UPDATE " + sequence + " SET next_val = ? WHERE next_val < ?", floor, floor) > 0;
+        } else {
+            Long next = jdbcTemplate.queryForObject(
+                    "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE UPPER(SEQUENCE_NAME) = ?",
+                    Long.class, sequence.toUpperCase());
+            moved = next != null && next < floor;
+            if (moved) {
+                jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + floor);
+            }
+        }
+        if (moved) {
+            log.info("Moved {} past the existing {} ids (max {})", sequence, table, maxId);
+        }
+    }
+    
+    private boolean isMySql() {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                    DatabaseMetaData::getDatabaseProductName);
+            return product.toLowerCase().contains("mysql");
+        } catch (MetaDataAccessException e) {
+            throw new RuntimeException("Cannot determine the database type", e);
+        }
+    }
+    
+    private static SequenceGenerator sequenceGenerator(Class<?> entity) {
+        try {
+            return entity.getDeclaredField("id").getAnnotation(SequenceGenerator.class);
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException(entity.getSimpleName() + " has no id field", e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.restaurant.shifttracker.config;
+
+import com.restaurant.shifttracker.util.LocationContext;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+import java.util.Map;
+
+/**
+ * Resolves Hibernate's tenant id for the @TenantId location columns on
+ * Employee and Shift. Every HQL/Criteria query and load then carries
+ * "location_id = ?" for the caller's location, and new rows get that location.
+ * The system scope is Hibernate's root tenant: unfiltered, and rows keep the
+ * location they were given explicitly.
+ */
+@Component
+public class LocationTenantConfig implements CurrentTenantIdentifierResolver<Long>, HibernatePropertiesCustomizer {
+    
+    @Override
+    public Long resolveCurrentTenantIdentifier() {
+        Long location = LocationContext.current();
+        return location == null ? LocationContext.SYSTEM : location;
+    }
+    
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return false;
+    }
+    
+    @Override
+    public boolean isRoot(Long tenantId) {
+        return LocationContext.SYSTEM.equals(tenantId);
+    }
+    
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER, this);
+    }
+}
@@ -0,0 +1,67 @@
+package com.restaurant.shifttracker.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.aop.ObservedAspect;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.Statistics;
+import org.hibernate.stat.spi.StatisticsFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service timers and spans come from @Observed (service.method, tagged with
+ * class and method), HTTP endpoints from Spring MVC (http.server.requests),
+ * repositories from Spring Data (spring.data.repository.invocations) and pool
+ * waits from Hikari (hikari.connections.acquire). This adds per-request
+ * statement and row counts, global Hibernate counters and sampled SQL logging.
+ */
+@Configuration
+public class ObservabilityConfig {
+    
+    // Fraction of statements logged; 0 = off
+    @Value("${shift.sql-log.sample-rate:0}")
+    private double sqlLogSampleRate;
+    
+    @Bean
+    public ObservedAspect observedAspect(ObservationRegistry observationRegistry) {
+        return new ObservedAspect(observationRegistry);
+    }
+    
+    @Bean
+    public HibernatePropertiesCustomizer hibernateStatisticsCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+            properties.put(AvailableSettings.STATS_BUILDER, (StatisticsFactory) RequestStatistics::new);
+            if (sqlLogSampleRate > 0) {
+                properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SampledSqlLogger(sqlLogSampleRate));
+            }
+        };
+    }
+    
+    @Bean
+    public MeterBinder hibernateStatisticsMetrics(EntityManagerFactory entityManagerFactory) {
+        return registry -> {
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            FunctionCounter.builder("hibernate.statements", statistics, Statistics::getPrepareStatementCount)
+                    .description("JDBC statements prepared").register(registry);
+            FunctionCounter.builder("hibernate.query.executions", statistics, Statistics::getQueryExecutionCount)
+                    .register(registry);
+            FunctionCounter.builder("hibernate.entities.loads", statistics, Statistics::getEntityLoadCount)
+                    .register(registry);
+            FunctionCounter.builder("hibernate.entities.fetches", statistics, Statistics::getEntityFetchCount)
+                    .register(registry);
+            FunctionCounter.builder("hibernate.collections.loads", statistics, Statistics::getCollectionLoadCount)
+                    .register(registry);
+            TimeGauge.builder("hibernate.query.executions.max", statistics, TimeUnit.MILLISECONDS,
+                    Statistics::getQueryExecutionMaxTime).register(registry);
+        };
+    }
+}
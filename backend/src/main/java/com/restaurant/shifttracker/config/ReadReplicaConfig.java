@@ -0,0 +1,87 @@
+package com.restaurant.shifttracker.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the single spring.datasource pool with a primary pool plus one
+ * pool per shift.datasource.replica-urls entry, routed by
+ * {@link ReplicaRoutingDataSource}. Replicas use the primary's credentials and
+ * spring.datasource.hikari settings unless overridden below.
+ */
+@Configuration
+@ConditionalOnProperty(name = "shift.datasource.replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+    
+    @Value("${shift.datasource.replica-urls}")
+    private List<String> replicaUrls;
+    
+    @Value("${shift.datasource.replica-username:${spring.datasource.username:}}")
+    private String replicaUsername;
+    
+    @Value("${shift.datasource.replica-password:${spring.datasource.password:}}")
+    private String replicaPassword;
+    
+    // Also bounds how long a read waits before falling back to the primary
+    @Value("${shift.datasource.replica-connection-timeout-ms:2000}")
+    private long replicaConnectionTimeoutMs;
+    
+    @Value("${shift.datasource.read-your-writes-ms:5000}")
+    private long readYourWritesMs;
+    
+    @Value("${shift.datasource.replica-max-lag-seconds:30}")
+    private int replicaMaxLagSeconds;
+    
+    @Value("${shift.datasource.replica-check-interval-ms:5000}")
+    private long replicaCheckIntervalMs;
+    
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, Environment environment,
+                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        HikariDataSource primary = pool(properties, environment, "primary");
+        
+        List<DataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = pool(properties, environment, "replica-" + replicas.size());
+            replica.setJdbcUrl(url.trim());
+            replica.setUsername(replicaUsername);
+            replica.setPassword(replicaPassword);
+            replica.setReadOnly(true);
+            replica.setConnectionTimeout(replicaConnectionTimeoutMs);
+            // Start even if a replica is down; the health check brings it in later
+            replica.setInitializationFailTimeout(-1);
+            // Only the primary is a bean, so replica pools are not bound to metrics automatically
+            meterRegistry.ifAvailable(registry -> replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            replicas.add(replica);
+        }
+        
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replicas,
+                Duration.ofMillis(readYourWritesMs), replicaMaxLagSeconds);
+        routing.startHealthChecks(replicaCheckIntervalMs);
+        return routing;
+    }
+    
+    private static HikariDataSource pool(DataSourceProperties properties, Environment environment, String name) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        return pool;
+    }
+}
@@ -0,0 +1,201 @@
+package com.restaurant.shifttracker.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.restaurant.shifttracker.util.JwtPrincipal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Sends read-only work to replicas and everything else to the primary.
+ *
+ * Connections are fetched lazily, at the first statement, so by then the
+ * transaction manager has marked the connection read-only for
+ * {@code @Transactional(readOnly = true)} methods (and Spring Data's read
+ * methods); only those go to a replica.
+ *
+ * A caller that has used a read-write connection reads from the primary for
+ * the next read-your-writes window, so its own changes are visible despite
+ * replication lag. Work without a signed-in user (scheduled jobs, startup,
+ * the write pipeline, login) always reads from the primary: it fills caches
+ * and decides what to write, and has no user whose writes could be tracked. Replicas are health-checked in the background and skipped
+ * while down or lagging; a replica that fails to hand out a connection is
+ * marked down at once and the read falls back to the primary.
+ */
+@Slf4j
+class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+    
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final AtomicIntegerArray healthy;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final Cache<Long, Boolean> recentWriters;
+    private final int maxLagSeconds;
+    private ScheduledExecutorService healthChecks;
+    
+    ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, Duration readYourWrites, int maxLagSeconds) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.healthy = new AtomicIntegerArray(replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            healthy.set(i, 1);
+        }
+        this.recentWriters = Caffeine.newBuilder().expireAfterWrite(readYourWrites).build();
+        this.maxLagSeconds = maxLagSeconds;
+        setTargetDataSource(new WriteTrackingDataSource(primary));
+        setReadOnlyDataSource(new ReplicaSelectingDataSource());
+        afterPropertiesSet();
+        // Read the connection defaults up front: fetched lazily, they would
+        // come from the first caller's connection and count as its write
+        try (Connection connection = primary.getConnection()) {
+            checkDefaultConnectionProperties(connection);
+        } catch (SQLException e) {
+            log.warn("Could not read the primary's connection defaults: {}", e.getMessage());
+        }
+    }
+    
+    void startHealthChecks(long intervalMs) {
+        healthChecks = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecks.scheduleWithFixedDelay(this::checkReplicas, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+    
+    @Override
+    public void close() throws Exception {
+        if (healthChecks != null) {
+            healthChecks.shutdownNow();
+        }
+        for (DataSource dataSource : replicas) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+    
+    int healthyReplicaCount() {
+        int count = 0;
+        for (int i = 0; i < healthy.length(); i++) {
+            count += healthy.get(i);
+        }
+        return count;
+    }
+    
+    void checkReplicas() {
+        for (int i = 0; i < replicas.size(); i++) {
+            boolean up;
+            try (Connection connection = replicas.get(i).getConnection()) {
+                up = connection.isValid(2) && lagAcceptable(connection);
+            } catch (SQLException | RuntimeException e) {
+                up = false;
+            }
+            setHealthy(i, up);
+        }
+    }
+    
+    private boolean lagAcceptable(Connection connection) throws SQLException {
+        if (maxLagSeconds <= 0) {
+            return true;
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SHOW REPLICA STATUS")) {
+            if (!rs.next()) {
+                return false;
+            }
+            long lag = rs.getLong("Seconds_Behind_Source");
+            return !rs.wasNull() && lag <= maxLagSeconds;
+        }
+    }
+    
+    private void setHealthy(int replica, boolean up) {
+        if (healthy.getAndSet(replica, up ? 1 : 0) != (up ? 1 : 0)) {
+            if (up) {
+                log.info("Read replica {} is back; routing reads to it", replica);
+            } else {
+                log.warn("Read replica {} is down or lagging; reading from the primary instead", replica);
+            }
+        }
+    }
+    
+    private static Long currentUserId() {
+        JwtPrincipal principal = JwtPrincipal.current();
+        return principal == null ? null : principal.userId();
+    }
+    
+    /**
+     * The primary, remembering who wrote. Every read-write connection counts
+     * as a write: cheaper than tracking statements and only errs towards the
+     * primary.
+     */
+    private class WriteTrackingDataSource extends DelegatingDataSource {
+        
+        WriteTrackingDataSource(DataSource target) {
+            super(target);
+        }
+        
+        @Override
+        public Connection getConnection() throws SQLException {
+            Long userId = currentUserId();
+            if (userId != null) {
+                recentWriters.put(userId, Boolean.TRUE);
+            }
+            return super.getConnection();
+        }
+    }
+    
+    /**
+     * Round-robin over healthy replicas, or the primary for background work,
+     * for recent writers and when no replica is available.
+     */
+    private class ReplicaSelectingDataSource extends AbstractDataSource {
+        
+        @Override
+        public Connection getConnection() throws SQLException {
+            Long userId = currentUserId();
+            if (userId != null && recentWriters.getIfPresent(userId) == null) {
+                int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(replicas.size(), 1));
+                for (int n = 0; n < replicas.size(); n++) {
+                    int replica = (start + n) % replicas.size();
+                    if (healthy.get(replica) == 0) {
+                        continue;
+                    }
+                    try {
+                        return replicas.get(replica).getConnection();
+                    } catch (SQLException e) {
+                        setHealthy(replica, false);
+                    }
+                }
+            }
+            return readOnly(primary.getConnection());
+        }
+        
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new SQLException("Replica routing uses the configured credentials");
+        }
+        
+        private Connection readOnly(Connection connection) throws SQLException {
+            connection.setReadOnly(true);
+            return connection;
+        }
+    }
+}
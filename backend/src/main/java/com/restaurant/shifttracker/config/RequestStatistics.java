@@ -0,0 +1,36 @@
+package com.restaurant.shifttracker.config;
+
+import com.restaurant.shifttracker.util.RequestQueryStats;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.internal.StatisticsImpl;
+
+/**
+ * Hibernate's statistics, additionally attributing statements and rows to the
+ * current request through {@link RequestQueryStats}. Rows are the results of
+ * queries plus entities fetched on their own (by id or lazily); loadEntity is
+ * not counted, since it also fires for every entity a query returns.
+ */
+class RequestStatistics extends StatisticsImpl {
+    
+    RequestStatistics(SessionFactoryImplementor sessionFactory) {
+        super(sessionFactory);
+    }
+    
+    @Override
+    public void prepareStatement() {
+        super.prepareStatement();
+        RequestQueryStats.statementPrepared();
+    }
+    
+    @Override
+    public void queryExecuted(String hql, int rows, long time) {
+        super.queryExecuted(hql, rows, time);
+        RequestQueryStats.rowsFetched(rows);
+    }
+    
+    @Override
+    public void fetchEntity(String entityName) {
+        super.fetchEntity(entityName);
+        RequestQueryStats.rowsFetched(1);
+    }
+}
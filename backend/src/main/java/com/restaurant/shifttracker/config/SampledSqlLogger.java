@@ -0,0 +1,27 @@
+package com.restaurant.shifttracker.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Logs a random sample of the SQL Hibernate sends, in place of
+ * spring.jpa.show-sql, which prints every statement to stdout.
+ */
+@Slf4j
+class SampledSqlLogger implements StatementInspector {
+    
+    private final double sampleRate;
+    
+    SampledSqlLogger(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+    
+    @Override
+    public String inspect(String sql) {
+        if (ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            log.info("SQL: {}", sql);
+        }
+        return sql;
+    }
+}
@@ -1,15 +1,44 @@
 package com.restaurant.shifttracker.controller;
 
+import com.restaurant.shifttracker.dto.CompactWeeklyHoursResponse;
+import com.restaurant.shifttracker.dto.EmployeeImportResponse;
 import com.restaurant.shifttracker.dto.EmployeeRequest;
 import com.restaurant.shifttracker.dto.EmployeeResponse;
+import com.restaurant.shifttracker.dto.LaborAnalyticsResponse;
+import com.restaurant.shifttracker.dto.ShiftAdjustmentRequest;
+import com.restaurant.shifttracker.dto.ShiftHistoryResponse;
+import com.restaurant.shifttracker.dto.ShiftJournalEntryResponse;
+import com.restaurant.shifttracker.dto.ShiftResponse;
 import com.restaurant.shifttracker.dto.WeeklyHoursResponse;
+import com.restaurant.shifttracker.service.ChangeCounters;
 import com.restaurant.shifttracker.service.EmployeeService;
+import com.restaurant.shifttracker.service.LaborAnalyticsService;
+import com.restaurant.shifttracker.service.OpenShiftSweeper;
+import com.restaurant.shifttracker.service.ShiftEventBroadcaster;
+import com.restaurant.shifttracker.service.ShiftExportService;
+import com.restaurant.shifttracker.service.ShiftJournalReplayService;
 import com.restaurant.shifttracker.service.ShiftService;
+import com.restaurant.shifttracker.service.WeeklyHoursSummaryService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -18,12 +47,40 @@ public class AdminController {
     
     private final EmployeeService employeeService;
     private final ShiftService shiftService;
+    private final WeeklyHoursSummaryService weeklyHoursSummaryService;
+    private final ShiftExportService shiftExportService;
+    private final ShiftEventBroadcaster shiftEventBroadcaster;
+    private final LaborAnalyticsService laborAnalyticsService;
+    private final ShiftJournalReplayService shiftJournalReplayService;
+    private final ChangeCounters changeCounters;
+    private final OpenShiftSweeper openShiftSweeper;
     
     @PostMapping("/employees")
     public ResponseEntity<EmployeeResponse> createEmployee(@Valid @RequestBody EmployeeRequest request) {
         return ResponseEntity.ok(employeeService.createEmployee(request));
     }
     
+    /**
+     * Bulk create, or with {@code upsert=true} create-or-update, from a JSON
+     * array of employees. Returns one result per row.
+     */
+    @PostMapping(value = "/employees/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<EmployeeImportResponse> importEmployees(
+            @RequestBody List<EmployeeRequest> requests,
+            @RequestParam(defaultValue = "false") boolean upsert) {
+        return ResponseEntity.ok(employeeService.importEmployees(requests, upsert));
+    }
+    
+    /**
+     * Same as the JSON variant, from CSV with a name,username,password header.
+     */
+    @PostMapping(value = "/employees/bulk", consumes = "text/csv")
+    public ResponseEntity<EmployeeImportResponse> importEmployeesCsv(
+            @RequestBody String csv,
+            @RequestParam(defaultValue = "false") boolean upsert) {
+        return ResponseEntity.ok(employeeService.importEmployees(EmployeeService.parseCsv(csv), upsert));
+    }
+    
     @PutMapping("/employees/{id}")
     public ResponseEntity<EmployeeResponse> updateEmployee(
             @PathVariable Long id, 
@@ -38,12 +95,137 @@ public class AdminController {
     }
     
     @GetMapping("/employees")
-    public ResponseEntity<List<EmployeeResponse>> getAllEmployees() {
-        return ResponseEntity.ok(employeeService.getAllEmployees());
+    public ResponseEntity<List<EmployeeResponse>> getAllEmployees(WebRequest request) {
+        return conditional(request, "employees", employeeService::getAllEmployees, ChangeCounters.Scope.EMPLOYEES);
+    }
+    
+    @GetMapping("/active-shifts")
+    public ResponseEntity<List<ShiftResponse>> getActiveShifts() {
+        return ResponseEntity.ok(shiftService.getActiveShifts());
+    }
+    
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamShiftEvents() {
+        return shiftEventBroadcaster.subscribe(null);
     }
     
     @GetMapping("/weekly-hours")
-    public ResponseEntity<List<WeeklyHoursResponse>> getAllEmployeesWeeklyHours() {
-        return ResponseEntity.ok(shiftService.getAllEmployeesWeeklyHours());
+    public ResponseEntity<List<WeeklyHoursResponse>> getAllEmployeesWeeklyHours(
+            WebRequest request,
+            @RequestParam(defaultValue = "true") boolean includeShifts) {
+        return conditional(request, "weekly-" + currentWeek() + "-" + includeShifts,
+                () -> shiftService.getAllEmployeesWeeklyHours(includeShifts),
+                ChangeCounters.Scope.EMPLOYEES, ChangeCounters.Scope.SHIFTS);
+    }
+    
+    /**
+     * The same report in the deduplicated shape, for large sites.
+     */
+    @GetMapping(value = "/weekly-hours", params = "shape=compact")
+    public ResponseEntity<CompactWeeklyHoursResponse> getAllEmployeesWeeklyHoursCompact(
+            WebRequest request,
+            @RequestParam(defaultValue = "true") boolean includeShifts) {
+        return conditional(request, "weekly-compact-" + currentWeek() + "-" + includeShifts,
+                () -> CompactWeeklyHoursResponse.of(shiftService.getAllEmployeesWeeklyHours(includeShifts),
+                        ZoneId.systemDefault()),
+                ChangeCounters.Scope.EMPLOYEES, ChangeCounters.Scope.SHIFTS);
+    }
+    
+    @PostMapping("/weekly-hours/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuildWeeklyHours(
+            @RequestParam(defaultValue = "1") int weeks) {
+        return ResponseEntity.ok(Map.of("rows", weeklyHoursSummaryService.rebuildWeeks(weeks)));
+    }
+    
+    @GetMapping("/shifts/history")
+    public ResponseEntity<ShiftHistoryResponse> getShiftHistory(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(name = "employeeId", required = false) List<Long> employeeIds,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(shiftService.getShiftHistory(from, to, employeeIds, cursor, limit));
+    }
+    
+    @PutMapping("/shifts/{id}")
+    public ResponseEntity<ShiftResponse> adjustShift(
+            @PathVariable Long id,
+            @Valid @RequestBody ShiftAdjustmentRequest request) {
+        return ResponseEntity.ok(shiftService.adjustShift(id, request.getClockIn(), request.getClockOut()));
+    }
+    
+    @GetMapping("/shifts/{id}/events")
+    public ResponseEntity<List<ShiftJournalEntryResponse>> getShiftJournal(@PathVariable Long id) {
+        return ResponseEntity.ok(shiftService.getShiftJournal(id));
+    }
+    
+    /**
+     * Rebuilds the shifts table and the weekly summary from the journal;
+     * {@code afterEventId=0} replays all of it. Every location is rebuilt, so
+     * an admin scoped to one location gets a 403.
+     */
+    @PostMapping("/shifts/journal/replay")
+    public ResponseEntity<ShiftJournalReplayService.ReplayResult> replayShiftJournal(
+            @RequestParam(defaultValue = "0") long afterEventId) {
+        return ResponseEntity.ok(shiftJournalReplayService.replay(afterEventId));
+    }
+    
+    /**
+     * Runs the forgotten clock-out sweep now; {@code action=flag} only marks
+     * the shifts instead of closing them.
+     */
+    @PostMapping("/shifts/sweep")
+    public ResponseEntity<OpenShiftSweeper.SweepResult> sweepOpenShifts(
+            @RequestParam(defaultValue = "close") OpenShiftSweeper.Action action) {
+        return ResponseEntity.ok(openShiftSweeper.sweep(action, LocalDateTime.now()));
+    }
+    
+    @GetMapping("/shifts/export")
+    public ResponseEntity<StreamingResponseBody> exportShifts(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "csv") ShiftExportService.Format format) {
+        boolean csv = format == ShiftExportService.Format.CSV;
+        shiftExportService.checkRange(from);
+        StreamingResponseBody body = out -> shiftExportService.exportShifts(from, to, format, out);
+        
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv") : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"shifts." + (csv ? "csv" : "ndjson") + "\"")
+                .body(body);
+    }
+    
+    @GetMapping("/analytics/labor")
+    public ResponseEntity<LaborAnalyticsResponse> getLaborAnalytics(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(laborAnalyticsService.analyze(from, to));
+    }
+    
+    // The weekly report covers the current week, so a new week is a new version
+    private static String currentWeek() {
+        return LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).toString();
+    }
+    
+    /**
+     * 304 if the caller's If-None-Match still matches, before the report is
+     * built; otherwise the report with its ETag, read in the same transaction.
+     * Clients must revalidate every time (the data is per user and changes at
+     * any moment). JSON and CBOR are different representations, so they get
+     * different ETags.
+     */
+    private <T> ResponseEntity<T> conditional(WebRequest request, String variant, Supplier<T> body,
+                                              ChangeCounters.Scope... scopes) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        boolean cbor = accept != null && accept.contains(MediaType.APPLICATION_CBOR_VALUE);
+        CacheControl revalidate = CacheControl.noCache().cachePrivate();
+        return changeCounters.readWithEtag(cbor ? variant + "-cbor" : variant, etag -> {
+            if (request.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(etag).cacheControl(revalidate).varyBy(HttpHeaders.ACCEPT).<T>build();
+            }
+            return ResponseEntity.ok().eTag(etag).cacheControl(revalidate).varyBy(HttpHeaders.ACCEPT).body(body.get());
+        }, scopes);
     }
-}
\ No newline at end of file
+}
@@ -1,49 +1,99 @@
 package com.restaurant.shifttracker.controller;
 
+import com.restaurant.shifttracker.dto.CompactWeeklyHoursResponse;
+import com.restaurant.shifttracker.dto.ShiftHistoryResponse;
 import com.restaurant.shifttracker.dto.ShiftResponse;
 import com.restaurant.shifttracker.dto.WeeklyHoursResponse;
+import com.restaurant.shifttracker.service.IdempotencyStore;
+import com.restaurant.shifttracker.service.ShiftEventBroadcaster;
 import com.restaurant.shifttracker.service.ShiftService;
-import com.restaurant.shifttracker.util.JwtUtil;
+import com.restaurant.shifttracker.util.JwtPrincipal;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/shifts")
 @RequiredArgsConstructor
 public class ShiftController {
     
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    
     private final ShiftService shiftService;
-    private final JwtUtil jwtUtil;
+    private final IdempotencyStore idempotencyStore;
+    private final ShiftEventBroadcaster shiftEventBroadcaster;
     
+    /**
+     * Clock-in and clock-out honour an Idempotency-Key header: a retry with
+     * the same key returns the original response instead of running again.
+     */
     @PostMapping("/clock-in")
-    public ResponseEntity<ShiftResponse> clockIn(@RequestHeader("Authorization") String token) {
-        Long employeeId = extractEmployeeId(token);
-        return ResponseEntity.ok(shiftService.clockIn(employeeId));
+    public ResponseEntity<ShiftResponse> clockIn(
+            @AuthenticationPrincipal JwtPrincipal principal,
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        Long employeeId = principal.userId();
+        return ResponseEntity.ok(idempotencyStore.execute(employeeId, "clock-in", idempotencyKey,
+                () -> shiftService.clockIn(employeeId)));
     }
     
     @PostMapping("/clock-out")
-    public ResponseEntity<ShiftResponse> clockOut(@RequestHeader("Authorization") String token) {
-        Long employeeId = extractEmployeeId(token);
-        return ResponseEntity.ok(shiftService.clockOut(employeeId));
+    public ResponseEntity<ShiftResponse> clockOut(
+            @AuthenticationPrincipal JwtPrincipal principal,
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        Long employeeId = principal.userId();
+        return ResponseEntity.ok(idempotencyStore.execute(employeeId, "clock-out", idempotencyKey,
+                () -> shiftService.clockOut(employeeId)));
     }
     
     @GetMapping("/active")
-    public ResponseEntity<ShiftResponse> getActiveShift(@RequestHeader("Authorization") String token) {
-        Long employeeId = extractEmployeeId(token);
+    public ResponseEntity<ShiftResponse> getActiveShift(@AuthenticationPrincipal JwtPrincipal principal) {
+        Long employeeId = principal.userId();
         return shiftService.getActiveShift(employeeId)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
     
+    /**
+     * Server-sent events for the caller's own shifts: a "snapshot" first, then
+     * "clock-in" / "clock-out" as they commit.
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamShiftEvents(@AuthenticationPrincipal JwtPrincipal principal) {
+        return shiftEventBroadcaster.subscribe(principal.userId());
+    }
+    
     @GetMapping("/weekly-hours")
-    public ResponseEntity<WeeklyHoursResponse> getWeeklyHours(@RequestHeader("Authorization") String token) {
-        Long employeeId = extractEmployeeId(token);
-        return ResponseEntity.ok(shiftService.getWeeklyHours(employeeId));
+    public ResponseEntity<WeeklyHoursResponse> getWeeklyHours(
+            @AuthenticationPrincipal JwtPrincipal principal,
+            @RequestParam(defaultValue = "true") boolean includeShifts) {
+        Long employeeId = principal.userId();
+        return ResponseEntity.ok(shiftService.getWeeklyHours(employeeId, includeShifts));
+    }
+    
+    @GetMapping(value = "/weekly-hours", params = "shape=compact")
+    public ResponseEntity<CompactWeeklyHoursResponse> getWeeklyHoursCompact(
+            @AuthenticationPrincipal JwtPrincipal principal,
+            @RequestParam(defaultValue = "true") boolean includeShifts) {
+        Long employeeId = principal.userId();
+        return ResponseEntity.ok(CompactWeeklyHoursResponse.of(
+                List.of(shiftService.getWeeklyHours(employeeId, includeShifts)), ZoneId.systemDefault()));
     }
     
-    private Long extractEmployeeId(String token) {
-        String jwt = token.substring(7);
-        return jwtUtil.extractUserId(jwt);
+    @GetMapping("/history")
+    public ResponseEntity<ShiftHistoryResponse> getShiftHistory(
+            @AuthenticationPrincipal JwtPrincipal principal,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        Long employeeId = principal.userId();
+        return ResponseEntity.ok(shiftService.getShiftHistory(from, to, List.of(employeeId), cursor, limit));
     }
-}
\ No newline at end of file
+}
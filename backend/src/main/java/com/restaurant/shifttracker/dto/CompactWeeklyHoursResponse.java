@@ -0,0 +1,75 @@
+package com.restaurant.shifttracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The weekly hours report without repetition, for large sites: each employee
+ * is listed once and shifts are stored column-wise, referring to employees by
+ * index. Times are epoch seconds (shift times are local to {@code zone}) and
+ * durations whole minutes. Requested with {@code shape=compact}; combine with
+ * Accept: application/cbor for the smallest payload.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CompactWeeklyHoursResponse {
+    private String zone;
+    private List<Employee> employees;
+    private Shifts shifts;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Employee {
+        private Long id;
+        private String name;
+        private long totalWeeklyMinutes;
+    }
+    
+    /**
+     * One entry per shift in every column; clockOut and minutes are null while
+     * a shift is open.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Shifts {
+        private List<Long> id;
+        private List<Integer> employee;
+        private List<Long> clockIn;
+        private List<Long> clockOut;
+        private List<Integer> minutes;
+    }
+    
+    public static CompactWeeklyHoursResponse of(List<WeeklyHoursResponse> report, ZoneId zone) {
+        List<Employee> employees = new ArrayList<>(report.size());
+        Shifts shifts = new Shifts(new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        for (WeeklyHoursResponse row : report) {
+            int index = employees.size();
+            employees.add(new Employee(row.getEmployeeId(), row.getEmployeeName(), row.getTotalWeeklyMinutes()));
+            if (row.getShifts() == null) {
+                continue;
+            }
+            for (ShiftResponse shift : row.getShifts()) {
+                shifts.getId().add(shift.getId());
+                shifts.getEmployee().add(index);
+                shifts.getClockIn().add(epochSecond(shift.getClockIn(), zone));
+                shifts.getClockOut().add(epochSecond(shift.getClockOut(), zone));
+                shifts.getMinutes().add(shift.getTotalMinutes());
+            }
+        }
+        return new CompactWeeklyHoursResponse(zone.getId(), employees, shifts);
+    }
+    
+    private static Long epochSecond(LocalDateTime time, ZoneId zone) {
+        return time == null ? null : time.atZone(zone).toEpochSecond();
+    }
+}
@@ -0,0 +1,35 @@
+package com.restaurant.shifttracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmployeeImportResponse {
+    private int created;
+    private int updated;
+    private int failed;
+    private List<Row> rows;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Row {
+        // 1-based position in the submitted list (or CSV data line)
+        private int row;
+        private String username;
+        private Status status;
+        private Long id;
+        private String error;
+    }
+    
+    public enum Status {
+        CREATED, UPDATED, FAILED
+    }
+}
@@ -0,0 +1,22 @@
+package com.restaurant.shifttracker.dto;
+
+import com.restaurant.shifttracker.entity.Employee;
+
+/**
+ * Immutable copy of an employee row, safe to share through the employee
+ * lookup cache. Never returned from a controller: it carries the password hash.
+ */
+public record EmployeeSnapshot(Long id, String name, String username, String passwordHash,
+                               Employee.Role role, boolean active, Long locationId) {
+    
+    public static EmployeeSnapshot of(Employee employee) {
+        return new EmployeeSnapshot(
+                employee.getId(),
+                employee.getName(),
+                employee.getUsername(),
+                employee.getPassword(),
+                employee.getRole(),
+                Boolean.TRUE.equals(employee.getIsActive()),
+                employee.getLocationId());
+    }
+}
@@ -0,0 +1,44 @@
+package com.restaurant.shifttracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Headcount and labor-hour heatmaps for a range. {@code averageHeadcount} and
+ * {@code peakHeadcount} hold one entry per {@code bucketMinutes} bucket
+ * starting at {@code from}; {@code laborHoursByDayOfWeekAndHour} is indexed
+ * [Monday = 0 .. Sunday = 6][hour].
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LaborAnalyticsResponse {
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private int bucketMinutes;
+    private double[] averageHeadcount;
+    private int[] peakHeadcount;
+    private double[][] laborHoursByDayOfWeekAndHour;
+    private double totalLaborHours;
+    private int weeklyOvertimeThresholdHours;
+    private List<OvertimeEntry> overtime;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class OvertimeEntry {
+        private Long employeeId;
+        private String employeeName;
+        private LocalDate weekStart;
+        private int isoWeek;
+        private double workedHours;
+        private double overtimeHours;
+    }
+}
@@ -0,0 +1,18 @@
+package com.restaurant.shifttracker.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShiftAdjustmentRequest {
+    @NotNull(message = "Clock-in is required")
+    private LocalDateTime clockIn;
+    
+    // Null keeps the shift open; only allowed for a shift that is still open
+    private LocalDateTime clockOut;
+}
@@ -0,0 +1,16 @@
+package com.restaurant.shifttracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ShiftHistoryResponse {
+    private List<ShiftResponse> shifts;
+    private String nextCursor;
+}
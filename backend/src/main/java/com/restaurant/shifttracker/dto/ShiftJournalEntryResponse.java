@@ -0,0 +1,36 @@
+package com.restaurant.shifttracker.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.restaurant.shifttracker.entity.Shift;
+import com.restaurant.shifttracker.event.ShiftEvent;
+import com.restaurant.shifttracker.util.Hours;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ShiftJournalEntryResponse {
+    private Long id;
+    private ShiftEvent.Type eventType;
+    private Long shiftId;
+    private Long employeeId;
+    private LocalDateTime clockIn;
+    private LocalDateTime clockOut;
+    @JsonIgnore
+    private Integer totalMinutes;
+    private Shift.Anomaly anomaly;
+    private LocalDateTime recordedAt;
+    private Long recordedBy;
+    
+    @JsonProperty("totalHours")
+    public BigDecimal getTotalHours() {
+        return Hours.fromMinutes(totalMinutes);
+    }
+}
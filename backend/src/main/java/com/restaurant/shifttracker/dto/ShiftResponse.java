@@ -1,5 +1,8 @@
 package com.restaurant.shifttracker.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.restaurant.shifttracker.util.Hours;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -17,5 +20,13 @@ public class ShiftResponse {
     private String employeeName;
     private LocalDateTime clockIn;
     private LocalDateTime clockOut;
-    private BigDecimal totalHours;
-}
\ No newline at end of file
+    @JsonIgnore
+    private Integer totalMinutes;
+    @JsonIgnore
+    private Long locationId;
+    
+    @JsonProperty("totalHours")
+    public BigDecimal getTotalHours() {
+        return Hours.fromMinutes(totalMinutes);
+    }
+}
@@ -1,5 +1,8 @@
 package com.restaurant.shifttracker.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.restaurant.shifttracker.util.Hours;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -14,6 +17,12 @@ import java.util.List;
 public class WeeklyHoursResponse {
     private Long employeeId;
     private String employeeName;
-    private BigDecimal totalWeeklyHours;
+    @JsonIgnore
+    private long totalWeeklyMinutes;
     private List<ShiftResponse> shifts;
-}
\ No newline at end of file
+    
+    @JsonProperty("totalWeeklyHours")
+    public BigDecimal getTotalWeeklyHours() {
+        return Hours.fromMinutes(totalWeeklyMinutes);
+    }
+}
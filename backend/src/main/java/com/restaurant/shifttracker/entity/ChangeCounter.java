@@ -0,0 +1,38 @@
+package com.restaurant.shifttracker.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.io.Serializable;
+
+/**
+ * Version of one kind of data (employees, shifts) at one location, bumped by
+ * every write. Location 0 (the system scope) counts towards every location.
+ * Written and read with plain JDBC; mapped so the schema is generated.
+ */
+@Entity
+@Table(name = "change_counters")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChangeCounter {
+    
+    @EmbeddedId
+    private Key id;
+    
+    @Column(nullable = false)
+    private Long version;
+    
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        
+        @Column(name = "location_id", nullable = false)
+        private Long locationId;
+        
+        @Column(name = "scope", nullable = false, length = 20)
+        private String scope;
+    }
+}
@@ -2,20 +2,31 @@ package com.restaurant.shifttracker.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.TenantId;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "employees")
+@Table(name = "employees", indexes = {
+    @Index(name = "idx_employee_location_role", columnList = "location_id, role")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Employee {
     
+    // Sequence rather than IDENTITY so bulk imports can batch their inserts
+    // (same scheme as Shift); ids are handed out in blocks of 50.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employee_seq")
+    @SequenceGenerator(name = "employee_seq", sequenceName = "employee_seq", allocationSize = 50)
     private Long id;
     
+    // Restaurant location; filled from the caller's JWT and applied to every query
+    @TenantId
+    @Column(name = "location_id", nullable = false, updatable = false)
+    private Long locationId;
+    
     @Column(nullable = false, length = 100)
     private String name;
     
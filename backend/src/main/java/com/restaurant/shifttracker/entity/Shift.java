@@ -2,33 +2,61 @@ package com.restaurant.shifttracker.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
-import java.math.BigDecimal;
+import org.hibernate.annotations.TenantId;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "shifts")
+@Table(name = "shifts", indexes = {
+    @Index(name = "idx_clock_in", columnList = "clock_in"),
+    @Index(name = "idx_employee_clock_in", columnList = "employee_id, clock_in"),
+    @Index(name = "idx_location_clock_in", columnList = "location_id, clock_in"),
+    @Index(name = "idx_clock_out_clock_in", columnList = "clock_out, clock_in")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uk_shift_open", columnNames = {"employee_id", "open_marker"})
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Shift {
     
+    // Sequence (a table-backed emulation on MySQL) rather than IDENTITY so that
+    // Hibernate can batch shift inserts; ids are handed out in blocks of 50.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "shift_seq")
+    @SequenceGenerator(name = "shift_seq", sequenceName = "shift_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "employee_id", nullable = false)
     private Employee employee;
     
+    // Always the employee's location; denormalised so that location-scoped
+    // queries and indexes never need the join
+    @TenantId
+    @Column(name = "location_id", nullable = false, updatable = false)
+    private Long locationId;
+    
     @Column(name = "clock_in", nullable = false)
     private LocalDateTime clockIn;
     
     @Column(name = "clock_out")
     private LocalDateTime clockOut;
     
-    @Column(name = "total_hours", precision = 5, scale = 2)
-    private BigDecimal totalHours;
+    // Whole minutes between clock-in and clock-out; null while open
+    @Column(name = "total_minutes")
+    private Integer totalMinutes;
+    
+    // Generated by the database: 1 while the shift is open, NULL once closed.
+    // Together with uk_shift_open this allows one open shift per employee.
+    @Column(name = "open_marker", insertable = false, updatable = false,
+            columnDefinition = "TINYINT GENERATED ALWAYS AS (CASE WHEN clock_out IS NULL THEN 1 ELSE NULL END)")
+    private Integer openMarker;
+    
+    // Set by the OpenShiftSweeper on shifts left open past the maximum length
+    @Enumerated(EnumType.STRING)
+    @Column(name = "anomaly", length = 20)
+    private Anomaly anomaly;
     
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -36,6 +64,13 @@ public class Shift {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    public enum Anomaly {
+        // Closed by the sweeper at clock-in plus the maximum shift length
+        AUTO_CLOSED,
+        // Left open, for an admin to correct
+        OVERLONG
+    }
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
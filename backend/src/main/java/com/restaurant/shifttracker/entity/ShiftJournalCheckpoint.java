@@ -0,0 +1,28 @@
+package com.restaurant.shifttracker.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Journal position up to which shifts and weekly_hours_summary are known to
+ * match the journal; startup replays only the events after it.
+ */
+@Entity
+@Table(name = "shift_journal_checkpoint")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ShiftJournalCheckpoint {
+    
+    @Id
+    @Column(length = 50)
+    private String name;
+    
+    @Column(name = "last_event_id", nullable = false)
+    private Long lastEventId;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,66 @@
+package com.restaurant.shifttracker.entity;
+
+import com.restaurant.shifttracker.event.ShiftEvent;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.TenantId;
+import java.time.LocalDateTime;
+
+/**
+ * One row of the append-only shift journal. Every event carries the complete
+ * state of its shift afterwards, so the shifts table can be rebuilt from the
+ * last event of each shift.
+ */
+@Entity
+@Immutable
+@Table(name = "shift_events", indexes = {
+    @Index(name = "idx_shift_events_employee", columnList = "employee_id, id"),
+    @Index(name = "idx_shift_events_shift", columnList = "shift_id, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ShiftJournalEntry {
+    
+    // Journal order
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 16)
+    private ShiftEvent.Type eventType;
+    
+    @Column(name = "shift_id", nullable = false)
+    private Long shiftId;
+    
+    @Column(name = "employee_id", nullable = false)
+    private Long employeeId;
+    
+    @TenantId
+    @Column(name = "location_id", nullable = false, updatable = false)
+    private Long locationId;
+    
+    @Column(name = "clock_in", nullable = false)
+    private LocalDateTime clockIn;
+    
+    @Column(name = "clock_out")
+    private LocalDateTime clockOut;
+    
+    @Column(name = "total_minutes")
+    private Integer totalMinutes;
+    
+    // Only on the event that marked the anomaly; later events leave it null
+    @Enumerated(EnumType.STRING)
+    @Column(name = "anomaly", length = 20)
+    private Shift.Anomaly anomaly;
+    
+    @Column(name = "recorded_at", nullable = false)
+    private LocalDateTime recordedAt;
+    
+    // User whose request wrote the event; null for system and batched writes
+    @Column(name = "recorded_by")
+    private Long recordedBy;
+}
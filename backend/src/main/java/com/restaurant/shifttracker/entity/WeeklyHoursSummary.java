@@ -0,0 +1,49 @@
+package com.restaurant.shifttracker.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "weekly_hours_summary")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WeeklyHoursSummary {
+    
+    @EmbeddedId
+    private Key id;
+    
+    @Column(name = "total_minutes", nullable = false)
+    private Long totalMinutes;
+    
+    @Column(name = "shift_count", nullable = false)
+    private Integer shiftCount;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        updatedAt = LocalDateTime.now();
+    }
+    
+    /**
+     * Composite key: employee plus ISO week encoded as yyyyww (e.g. 202642).
+     */
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        
+        @Column(name = "employee_id", nullable = false)
+        private Long employeeId;
+        
+        @Column(name = "iso_week", nullable = false)
+        private Integer isoWeek;
+    }
+}
@@ -0,0 +1,28 @@
+package com.restaurant.shifttracker.event;
+
+import com.restaurant.shifttracker.dto.ShiftResponse;
+import com.restaurant.shifttracker.entity.Shift;
+
+/**
+ * Published inside the writing transaction whenever a shift is opened, closed,
+ * corrected (ADJUST) or flagged as an anomaly while still open (FLAG); the
+ * shift journal appends every one. Listeners that
+ * must only see committed state use
+ * {@code @TransactionalEventListener(phase = AFTER_COMMIT)}.
+ *
+ * {@code anomaly} is set by the writes that mark one (the sweeper's FLAG and
+ * auto-close); other events leave the shift's anomaly as it was.
+ *
+ * ARCHIVE and DELETE are never published: archiving and deleting an employee
+ * write them straight to the journal as the last event of each shift removed.
+ */
+public record ShiftEvent(Type type, ShiftResponse shift, Shift.Anomaly anomaly) {
+    
+    public enum Type {
+        CLOCK_IN, CLOCK_OUT, ADJUST, FLAG, ARCHIVE, DELETE
+    }
+    
+    public ShiftEvent(Type type, ShiftResponse shift) {
+        this(type, shift, null);
+    }
+}
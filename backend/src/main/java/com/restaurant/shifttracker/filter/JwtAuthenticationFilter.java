@@ -1,5 +1,6 @@
 package com.restaurant.shifttracker.filter;
 
+import com.restaurant.shifttracker.util.JwtPrincipal;
 import com.restaurant.shifttracker.util.JwtUtil;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -33,20 +34,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         
         try {
-            String jwt = authHeader.substring(7);
-            String username = jwtUtil.extractUsername(jwt);
-            String role = jwtUtil.extractRole(jwt);
-            
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                if (jwtUtil.validateToken(jwt, username)) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        username,
-                        null,
-                        Collections.singletonList(new SimpleGrantedAuthority(role))
-                    );
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                JwtPrincipal principal = jwtUtil.parseToken(authHeader.substring(7));
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                    principal,
+                    null,
+                    Collections.singletonList(new SimpleGrantedAuthority(principal.role()))
+                );
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         } catch (Exception e) {
             logger.error("JWT authentication error: " + e.getMessage());
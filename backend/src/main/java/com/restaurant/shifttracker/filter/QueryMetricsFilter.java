@@ -0,0 +1,50 @@
+package com.restaurant.shifttracker.filter;
+
+import com.restaurant.shifttracker.util.RequestQueryStats;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import java.io.IOException;
+
+/**
+ * Records the JDBC statements and rows each API request needed, per endpoint
+ * (http.server.requests.queries and http.server.requests.rows).
+ */
+@Component
+@RequiredArgsConstructor
+public class QueryMetricsFilter extends OncePerRequestFilter {
+    
+    private final MeterRegistry meterRegistry;
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RequestQueryStats.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestQueryStats.Snapshot stats = RequestQueryStats.end();
+            // The matched route, not the raw path, keeps the tag set bounded
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+            DistributionSummary.builder("http.server.requests.queries")
+                    .tag("method", request.getMethod()).tag("uri", uri)
+                    .register(meterRegistry).record(stats.statements());
+            DistributionSummary.builder("http.server.requests.rows")
+                    .tag("method", request.getMethod()).tag("uri", uri)
+                    .register(meterRegistry).record(stats.rows());
+        }
+    }
+}
@@ -2,11 +2,27 @@ package com.restaurant.shifttracker.repository;
 
 import com.restaurant.shifttracker.entity.Employee;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface EmployeeRepository extends JpaRepository<Employee, Long> {
     Optional<Employee> findByUsername(String username);
     boolean existsByUsername(String username);
+    List<Employee> findByUsernameIn(Collection<String> usernames);
+    List<Employee> findByRole(Employee.Role role);
+    
+    // Usernames are unique across all locations (login is by username alone),
+    // so these checks are native queries and bypass the location filter.
+    
+    @Query(value = "SELECT username FROM employees WHERE username IN (:usernames)", nativeQuery = true)
+    List<String> findUsernamesInAnyLocation(@Param("usernames") Collection<String> usernames);
+    
+    default boolean existsByUsernameInAnyLocation(String username) {
+        return !findUsernamesInAnyLocation(List.of(username)).isEmpty();
+    }
 }
\ No newline at end of file
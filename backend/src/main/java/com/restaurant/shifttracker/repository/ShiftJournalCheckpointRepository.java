@@ -0,0 +1,9 @@
+package com.restaurant.shifttracker.repository;
+
+import com.restaurant.shifttracker.entity.ShiftJournalCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ShiftJournalCheckpointRepository extends JpaRepository<ShiftJournalCheckpoint, String> {
+}
@@ -0,0 +1,12 @@
+package com.restaurant.shifttracker.repository;
+
+import com.restaurant.shifttracker.entity.ShiftJournalEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface ShiftJournalRepository extends JpaRepository<ShiftJournalEntry, Long> {
+    
+    List<ShiftJournalEntry> findByShiftIdOrderById(Long shiftId);
+}
@@ -1,30 +1,180 @@
 package com.restaurant.shifttracker.repository;
 
+import com.restaurant.shifttracker.dto.ShiftResponse;
 import com.restaurant.shifttracker.entity.Shift;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ShiftRepository extends JpaRepository<Shift, Long> {
     
-    @Query("SELECT s FROM Shift s WHERE s.employee.id = :employeeId AND s.clockOut IS NULL")
+    @Query("SELECT s FROM Shift s JOIN FETCH s.employee WHERE s.employee.id = :employeeId AND s.clockOut IS NULL")
     Optional<Shift> findActiveShiftByEmployeeId(@Param("employeeId") Long employeeId);
     
-    @Query("SELECT s FROM Shift s WHERE s.employee.id = :employeeId AND s.clockIn >= :startDate AND s.clockIn <= :endDate ORDER BY s.clockIn DESC")
+    @Query("SELECT new com.restaurant.shifttracker.dto.ShiftResponse(s.id, e.id, e.name, s.clockIn, s.clockOut, s.totalMinutes, s.locationId) " +
+           "FROM Shift s JOIN s.employee e WHERE s.clockOut IS NULL")
+    List<ShiftResponse> findAllActiveShiftResponses();
+    
+    @Query("SELECT s FROM Shift s JOIN FETCH s.employee WHERE s.employee.id IN :employeeIds AND s.clockOut IS NULL")
+    List<Shift> findActiveShiftsByEmployeeIds(@Param("employeeIds") Collection<Long> employeeIds);
+    
+    // Entity variants fetch the employee in the same statement, so mapping the
+    // result with ShiftService.mapToResponse never issues one SELECT per employee.
+    
+    @Query("SELECT s FROM Shift s JOIN FETCH s.employee WHERE s.employee.id = :employeeId AND s.clockIn >= :startDate AND s.clockIn <= :endDate ORDER BY s.clockIn DESC")
     List<Shift> findShiftsByEmployeeAndDateRange(
         @Param("employeeId") Long employeeId,
         @Param("startDate") LocalDateTime startDate,
         @Param("endDate") LocalDateTime endDate
     );
     
-    @Query("SELECT s FROM Shift s WHERE s.clockIn >= :startDate AND s.clockIn <= :endDate ORDER BY s.employee.id, s.clockIn DESC")
+    @Query("SELECT s FROM Shift s JOIN FETCH s.employee WHERE s.clockIn >= :startDate AND s.clockIn <= :endDate ORDER BY s.employee.id, s.clockIn DESC")
     List<Shift> findAllShiftsByDateRange(
         @Param("startDate") LocalDateTime startDate,
         @Param("endDate") LocalDateTime endDate
     );
-}
\ No newline at end of file
+    
+    // Projection variants: build ShiftResponse directly from the result set
+    // without creating managed entities. Used by the read-only report paths.
+    
+    @Query("SELECT new com.restaurant.shifttracker.dto.ShiftResponse(s.id, e.id, e.name, s.clockIn, s.clockOut, s.totalMinutes, s.locationId) " +
+           "FROM Shift s JOIN s.employee e " +
+           "WHERE e.id = :employeeId AND s.clockIn >= :startDate AND s.clockIn <= :endDate ORDER BY s.clockIn DESC")
+    List<ShiftResponse> findShiftResponsesByEmployeeAndDateRange(
+        @Param("employeeId") Long employeeId,
+        @Param("startDate") LocalDateTime startDate,
+        @Param("endDate") LocalDateTime endDate
+    );
+    
+    @Query("SELECT new com.restaurant.shifttracker.dto.ShiftResponse(s.id, e.id, e.name, s.clockIn, s.clockOut, s.totalMinutes, s.locationId) " +
+           "FROM Shift s JOIN s.employee e " +
+           "WHERE s.clockIn >= :startDate AND s.clockIn <= :endDate ORDER BY e.id, s.clockIn DESC")
+    List<ShiftResponse> findAllShiftResponsesByDateRange(
+        @Param("startDate") LocalDateTime startDate,
+        @Param("endDate") LocalDateTime endDate
+    );
+    
+    @Query("SELECT s.employee.id, SUM(s.totalMinutes), COUNT(s) FROM Shift s " +
+           "WHERE s.clockIn >= :startDate AND s.clockIn <= :endDate AND s.totalMinutes IS NOT NULL " +
+           "GROUP BY s.employee.id")
+    List<Object[]> sumMinutesByEmployeeAndDateRange(
+        @Param("startDate") LocalDateTime startDate,
+        @Param("endDate") LocalDateTime endDate
+    );
+    
+    // Compare-and-set for corrections: only applies if the shift still has the
+    // times the caller read, so no row lock is held between read and write.
+    // A null clockOut compares as clockIn.
+    @Modifying
+    @Query("UPDATE Shift s SET s.clockIn = :clockIn, s.clockOut = :clockOut, s.totalMinutes = :totalMinutes, " +
+           "s.updatedAt = :now " +
+           "WHERE s.id = :id AND s.clockIn = :expectedClockIn AND COALESCE(s.clockOut, s.clockIn) = :expectedEnd")
+    int adjustTimes(
+        @Param("id") Long id,
+        @Param("expectedClockIn") LocalDateTime expectedClockIn,
+        @Param("expectedEnd") LocalDateTime expectedEnd,
+        @Param("clockIn") LocalDateTime clockIn,
+        @Param("clockOut") LocalDateTime clockOut,
+        @Param("totalMinutes") Integer totalMinutes,
+        @Param("now") LocalDateTime now
+    );
+    
+    // Open shifts that clocked in before the cutoff, oldest first: a range scan
+    // of idx_clock_out_clock_in, keyset-paged over (clock_in, id) so that each
+    // batch starts where the last one ended. Flagged shifts can be skipped.
+    @Query("SELECT s FROM Shift s JOIN FETCH s.employee WHERE s.clockOut IS NULL AND s.clockIn < :cutoff " +
+           "AND (s.clockIn > :afterClockIn OR (s.clockIn = :afterClockIn AND s.id > :afterId)) " +
+           "AND (:skipFlagged = false OR s.anomaly IS NULL) " +
+           "ORDER BY s.clockIn, s.id")
+    List<Shift> findOverlongOpenShifts(
+        @Param("cutoff") LocalDateTime cutoff,
+        @Param("afterClockIn") LocalDateTime afterClockIn,
+        @Param("afterId") Long afterId,
+        @Param("skipFlagged") boolean skipFlagged,
+        Pageable pageable
+    );
+    
+    // Closes a shift only if it is still open, so a clock-out that commits
+    // between the sweeper's read and this update wins
+    @Modifying
+    @Query("UPDATE Shift s SET s.clockOut = :clockOut, s.totalMinutes = :totalMinutes, s.anomaly = :anomaly, " +
+           "s.updatedAt = :now WHERE s.id = :id AND s.clockOut IS NULL")
+    int closeIfOpen(
+        @Param("id") Long id,
+        @Param("clockOut") LocalDateTime clockOut,
+        @Param("totalMinutes") Integer totalMinutes,
+        @Param("anomaly") Shift.Anomaly anomaly,
+        @Param("now") LocalDateTime now
+    );
+    
+    @Modifying
+    @Query("UPDATE Shift s SET s.anomaly = :anomaly, s.updatedAt = :now " +
+           "WHERE s.id = :id AND s.clockOut IS NULL AND s.anomaly IS NULL")
+    int flagIfOpen(
+        @Param("id") Long id,
+        @Param("anomaly") Shift.Anomaly anomaly,
+        @Param("now") LocalDateTime now
+    );
+    
+    // Keyset pagination over (clock_in, id) descending. The cursor is the last
+    // row of the previous page; the first page starts from (to, Long.MIN_VALUE)
+    // so the upper bound is exclusive. Pageable only carries the page size.
+    
+    @Query("SELECT new com.restaurant.shifttracker.dto.ShiftResponse(s.id, e.id, e.name, s.clockIn, s.clockOut, s.totalMinutes, s.locationId) " +
+           "FROM Shift s JOIN s.employee e " +
+           "WHERE s.clockIn >= :from " +
+           "AND (s.clockIn < :cursorClockIn OR (s.clockIn = :cursorClockIn AND s.id < :cursorId)) " +
+           "ORDER BY s.clockIn DESC, s.id DESC")
+    List<ShiftResponse> findShiftHistoryPage(
+        @Param("from") LocalDateTime from,
+        @Param("cursorClockIn") LocalDateTime cursorClockIn,
+        @Param("cursorId") Long cursorId,
+        Pageable pageable
+    );
+    
+    @Query("SELECT new com.restaurant.shifttracker.dto.ShiftResponse(s.id, e.id, e.name, s.clockIn, s.clockOut, s.totalMinutes, s.locationId) " +
+           "FROM Shift s JOIN s.employee e " +
+           "WHERE e.id IN :employeeIds AND s.clockIn >= :from " +
+           "AND (s.clockIn < :cursorClockIn OR (s.clockIn = :cursorClockIn AND s.id < :cursorId)) " +
+           "ORDER BY s.clockIn DESC, s.id DESC")
+    List<ShiftResponse> findShiftHistoryPageForEmployees(
+        @Param("employeeIds") Collection<Long> employeeIds,
+        @Param("from") LocalDateTime from,
+        @Param("cursorClockIn") LocalDateTime cursorClockIn,
+        @Param("cursorId") Long cursorId,
+        Pageable pageable
+    );
+    
+    // Export stream: ordered by employee so totals can be computed on the fly.
+    // Entities are read-only and must be detached by the caller as it goes.
+    // On MySQL the fetch size only streams with useCursorFetch=true on the URL.
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT s FROM Shift s JOIN FETCH s.employee WHERE s.clockIn >= :from AND s.clockIn < :to " +
+           "ORDER BY s.employee.id, s.clockIn, s.id")
+    Stream<Shift> streamShiftsForExport(
+        @Param("from") LocalDateTime from,
+        @Param("to") LocalDateTime to
+    );
+    
+    // Explicit because a partitioned shifts table cannot carry the ON DELETE CASCADE foreign key
+    @Modifying
+    @Query("DELETE FROM Shift s WHERE s.employee.id = :employeeId")
+    int deleteByEmployeeId(@Param("employeeId") Long employeeId);
+}
@@ -0,0 +1,69 @@
+package com.restaurant.shifttracker.repository;
+
+import com.restaurant.shifttracker.entity.WeeklyHoursSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface WeeklyHoursSummaryRepository extends JpaRepository<WeeklyHoursSummary, WeeklyHoursSummary.Key> {
+    
+    // The summary has no location of its own; the Employee subquery carries
+    // the caller's location filter.
+    @Query("SELECT w FROM WeeklyHoursSummary w WHERE w.id.isoWeek = :isoWeek " +
+           "AND w.id.employeeId IN (SELECT e.id FROM Employee e)")
+    List<WeeklyHoursSummary> findByIsoWeek(@Param("isoWeek") Integer isoWeek);
+    
+    // One statement, so the first two clock-outs of a week cannot both insert
+    @Modifying
+    @Query(value = "INSERT INTO weekly_hours_summary (employee_id, iso_week, total_minutes, shift_count, updated_at) " +
+           "VALUES (:employeeId, :isoWeek, :minutes, 1, :now) " +
+           "ON DUPLICATE KEY UPDATE total_minutes = total_minutes + :minutes, shift_count = shift_count + 1, " +
+           "updated_at = :now", nativeQuery = true)
+    int addShiftMinutes(
+        @Param("employeeId") Long employeeId,
+        @Param("isoWeek") Integer isoWeek,
+        @Param("minutes") long minutes,
+        @Param("now") LocalDateTime now
+    );
+    
+    // Recomputes one row from the shifts table in the same statement, so a
+    // concurrent clock-out is counted either here or by its own increment
+    // afterwards. Writes nothing if the employee has no closed shift that week.
+    // The update branch sums again rather than using VALUES(col), which MySQL
+    // deprecates; the row-alias replacement is not understood by H2.
+    @Modifying
+    @Query(value = "INSERT INTO weekly_hours_summary (employee_id, iso_week, total_minutes, shift_count, updated_at) " +
+           "SELECT :employeeId, :isoWeek, SUM(s.total_minutes), COUNT(*), :now FROM shifts s " +
+           "WHERE s.employee_id = :employeeId AND s.clock_in >= :startDate AND s.clock_in <= :endDate " +
+           "AND s.total_minutes IS NOT NULL HAVING COUNT(*) > 0 " +
+           "ON DUPLICATE KEY UPDATE " +
+           "total_minutes = (SELECT SUM(s.total_minutes) FROM shifts s WHERE s.employee_id = :employeeId " +
+           "AND s.clock_in >= :startDate AND s.clock_in <= :endDate AND s.total_minutes IS NOT NULL), " +
+           "shift_count = (SELECT COUNT(*) FROM shifts s WHERE s.employee_id = :employeeId " +
+           "AND s.clock_in >= :startDate AND s.clock_in <= :endDate AND s.total_minutes IS NOT NULL), " +
+           "updated_at = :now", nativeQuery = true)
+    int recomputeFromShifts(
+        @Param("employeeId") Long employeeId,
+        @Param("isoWeek") Integer isoWeek,
+        @Param("startDate") LocalDateTime startDate,
+        @Param("endDate") LocalDateTime endDate,
+        @Param("now") LocalDateTime now
+    );
+    
+    @Modifying
+    @Query(value = "DELETE FROM weekly_hours_summary WHERE employee_id = :employeeId AND iso_week = :isoWeek " +
+           "AND NOT EXISTS (SELECT 1 FROM shifts s WHERE s.employee_id = :employeeId " +
+           "AND s.clock_in >= :startDate AND s.clock_in <= :endDate AND s.total_minutes IS NOT NULL)",
+           nativeQuery = true)
+    int deleteIfNoShifts(
+        @Param("employeeId") Long employeeId,
+        @Param("isoWeek") Integer isoWeek,
+        @Param("startDate") LocalDateTime startDate,
+        @Param("endDate") LocalDateTime endDate
+    );
+}
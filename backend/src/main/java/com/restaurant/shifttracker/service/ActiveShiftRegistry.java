@@ -0,0 +1,146 @@
+package com.restaurant.shifttracker.service;
+
+import com.restaurant.shifttracker.dto.ShiftResponse;
+import com.restaurant.shifttracker.event.ShiftEvent;
+import com.restaurant.shifttracker.repository.ShiftRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory view of every open shift, keyed by employee id. Loaded from the
+ * database at startup, updated from {@link ShiftEvent}s after their
+ * transaction commits, and periodically reconciled against the database so
+ * that a missed event, a crash or an out-of-band edit (or a write made by
+ * another node) cannot leave it stale for longer than the reconcile interval.
+ */
+@Service
+@RequiredArgsConstructor
+public class ActiveShiftRegistry {
+    
+    private final ShiftRepository shiftRepository;
+    private final TransactionTemplate transactionTemplate;
+    
+    private final Map<Long, ShiftResponse> openShifts = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    // Changes applied while a reconcile reads its snapshot, replayed on top of it
+    private List<Consumer<Map<Long, ShiftResponse>>> duringReconcile;
+    private volatile boolean ready;
+    
+    /**
+     * False until the first successful load; callers fall back to the database.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+    
+    public Optional<ShiftResponse> find(Long employeeId) {
+        return Optional.ofNullable(openShifts.get(employeeId));
+    }
+    
+    public List<ShiftResponse> findAll() {
+        return openShifts.values().stream()
+                .sorted(Comparator.comparing(ShiftResponse::getClockIn))
+                .collect(Collectors.toList());
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onShiftEvent(ShiftEvent event) {
+        mutate(shifts -> apply(event, shifts));
+    }
+    
+    /**
+     * Forgets an employee's open shift, e.g. when the employee and their shifts
+     * are deleted. Inside a transaction this happens after commit.
+     */
+    public void evict(Long employeeId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    mutate(shifts -> shifts.remove(employeeId));
+                }
+            });
+        } else {
+            mutate(shifts -> shifts.remove(employeeId));
+        }
+    }
+    
+    private void mutate(Consumer<Map<Long, ShiftResponse>> change) {
+        synchronized (lock) {
+            change.accept(openShifts);
+            if (duringReconcile != null) {
+                duringReconcile.add(change);
+            }
+        }
+    }
+    
+    private static void apply(ShiftEvent event, Map<Long, ShiftResponse> shifts) {
+        ShiftResponse shift = event.shift();
+        if (event.type() == ShiftEvent.Type.CLOCK_IN
+                || event.type() == ShiftEvent.Type.ADJUST && shift.getClockOut() == null) {
+            shifts.put(shift.getEmployeeId(), shift);
+        } else if (event.type() == ShiftEvent.Type.CLOCK_OUT) {
+            shifts.remove(shift.getEmployeeId());
+        } else if (event.type() == ShiftEvent.Type.ADJUST) {
+            // A corrected closed shift only matters if it was the open one
+            ShiftResponse open = shifts.get(shift.getEmployeeId());
+            if (open != null && open.getId().equals(shift.getId())) {
+                shifts.remove(shift.getEmployeeId());
+            }
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reconcile();
+    }
+    
+    /**
+     * Replaces the registry contents with a fresh snapshot. Changes applied
+     * while the snapshot was being read may be newer than it, so they are
+     * replayed on top of the snapshot before it is installed.
+     *
+     * The snapshot is read in a read-write transaction so that it comes from
+     * the primary: a lagging replica would bring back shifts already closed.
+     */
+    @Scheduled(fixedDelayString = "${shift.active-registry.reconcile-interval-ms:60000}",
+               initialDelayString = "${shift.active-registry.reconcile-interval-ms:60000}")
+    public synchronized void reconcile() {
+        synchronized (lock) {
+            duringReconcile = new ArrayList<>();
+        }
+        
+        try {
+            Map<Long, ShiftResponse> snapshot = transactionTemplate.execute(
+                    status -> shiftRepository.findAllActiveShiftResponses()).stream()
+                    .collect(Collectors.toMap(ShiftResponse::getEmployeeId, Function.identity(), (a, b) -> a));
+            synchronized (lock) {
+                duringReconcile.forEach(change -> change.accept(snapshot));
+                openShifts.keySet().retainAll(snapshot.keySet());
+                openShifts.putAll(snapshot);
+                ready = true;
+            }
+        } finally {
+            synchronized (lock) {
+                duringReconcile = null;
+            }
+        }
+    }
+}
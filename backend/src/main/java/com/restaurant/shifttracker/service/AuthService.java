@@ -1,46 +1,60 @@
 package com.restaurant.shifttracker.service;
 
+import com.restaurant.shifttracker.dto.EmployeeSnapshot;
 import com.restaurant.shifttracker.dto.LoginRequest;
 import com.restaurant.shifttracker.dto.LoginResponse;
-import com.restaurant.shifttracker.entity.Employee;
-import com.restaurant.shifttracker.repository.EmployeeRepository;
 import com.restaurant.shifttracker.util.JwtUtil;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+@Observed(name = "service.method")
 @Service
 @RequiredArgsConstructor
 public class AuthService {
     
-    private final EmployeeRepository employeeRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final EmployeeLookupService employeeLookupService;
+    private final PasswordHashingService passwordHashingService;
+    private final LoginThrottle loginThrottle;
     private final JwtUtil jwtUtil;
     
-    public LoginResponse login(LoginRequest request) {
-        Employee employee = employeeRepository.findByUsername(request.getUsername())
-                .orElseThrow(() -> new RuntimeException("Invalid credentials"));
+    /**
+     * Throttling is checked first, so a blocked username or client IP never
+     * reaches the (expensive) password check.
+     */
+    public LoginResponse login(LoginRequest request, String clientIp) {
+        loginThrottle.checkAllowed(request.getUsername(), clientIp);
         
-        if (!employee.getIsActive()) {
+        EmployeeSnapshot employee = employeeLookupService.findByUsername(request.getUsername())
+                .orElse(null);
+        if (employee == null) {
+            loginThrottle.recordFailure(request.getUsername(), clientIp);
+            throw new RuntimeException("Invalid credentials");
+        }
+        
+        if (!employee.active()) {
             throw new RuntimeException("Account is inactive");
         }
         
-        if (!passwordEncoder.matches(request.getPassword(), employee.getPassword())) {
+        if (!passwordHashingService.matches(request.getPassword(), employee.passwordHash())) {
+            loginThrottle.recordFailure(request.getUsername(), clientIp);
             throw new RuntimeException("Invalid credentials");
         }
+        loginThrottle.recordSuccess(request.getUsername());
         
         String token = jwtUtil.generateToken(
-            employee.getUsername(), 
-            employee.getRole().name(), 
-            employee.getId()
+            employee.username(), 
+            employee.role().name(), 
+            employee.id(),
+            employee.locationId()
         );
         
         return new LoginResponse(
             token,
-            employee.getId(),
-            employee.getName(),
-            employee.getUsername(),
-            employee.getRole().name()
+            employee.id(),
+            employee.name(),
+            employee.username(),
+            employee.role().name()
         );
     }
 }
\ No newline at end of file
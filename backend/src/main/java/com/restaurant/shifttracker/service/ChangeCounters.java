@@ -0,0 +1,122 @@
+package com.restaurant.shifttracker.service;
+
+import com.restaurant.shifttracker.event.ShiftEvent;
+import com.restaurant.shifttracker.util.LocationContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Per-location change counters behind the ETags of the admin reports. A write
+ * bumps the counter of its location and scope once per transaction, just
+ * before commit, so the row lock is held only for the commit itself. A bump in
+ * the system scope (location 0) counts for every location.
+ *
+ * An ETag is read in the same read-only transaction as the data it
+ * describes, so behind read replicas both come from the same replica, and it
+ * is read first: a write that commits in between only makes the next request
+ * miss, never serve stale data.
+ */
+@Service
+@RequiredArgsConstructor
+public class ChangeCounters {
+    
+    public enum Scope {
+        EMPLOYEES, SHIFTS
+    }
+    
+    private static final String BUMP = "INSERT INTO change_counters (location_id, scope, version) VALUES (?, ?, 1) "
+            + "ON DUPLICATE KEY UPDATE version = version + 1";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    private record Counter(Long locationId, Scope scope) {
+    }
+    
+    /**
+     * Bumps the caller's location, or every location in the system scope.
+     */
+    public void bump(Scope scope) {
+        Long location = LocationContext.current();
+        bump(location == null ? LocationContext.SYSTEM : location, scope);
+    }
+    
+    public void bump(Long locationId, Scope scope) {
+        Counter counter = new Counter(locationId == null ? LocationContext.SYSTEM : locationId, scope);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            jdbcTemplate.update(BUMP, counter.locationId(), counter.scope().name());
+            return;
+        }
+        
+        @SuppressWarnings("unchecked")
+        Set<Counter> pending = (Set<Counter>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<Counter> counters = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, counters);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    jdbcTemplate.batchUpdate(BUMP, counters.stream()
+                            .map(c -> new Object[] {c.locationId(), c.scope().name()})
+                            .toList());
+                }
+                
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ChangeCounters.this);
+                }
+            });
+            pending = counters;
+        }
+        pending.add(counter);
+    }
+    
+    @EventListener
+    public void onShiftEvent(ShiftEvent event) {
+        bump(event.shift().getLocationId(), Scope.SHIFTS);
+    }
+    
+    /**
+     * Computes the ETag and passes it to {@code read}, all in one read-only
+     * transaction, so the counters and whatever {@code read} loads use one
+     * connection rather than the counters always coming from the primary.
+     */
+    @Transactional(readOnly = true)
+    public <T> T readWithEtag(String variant, Function<String, T> read, Scope... scopes) {
+        return read.apply(etag(variant, scopes));
+    }
+    
+    /**
+     * Strong ETag of {@code variant} (whatever else the response depends on)
+     * over the given scopes as the caller sees them: their own location plus
+     * the system scope, or everything in the system scope.
+     */
+    private String etag(String variant, Scope... scopes) {
+        Long location = LocationContext.current();
+        Map<Scope, Long> versions = new EnumMap<>(Scope.class);
+        List<Map<String, Object>> rows = location == null
+                ? jdbcTemplate.queryForList("SELECT scope, SUM(version) AS version FROM change_counters GROUP BY scope")
+                : jdbcTemplate.queryForList("SELECT scope, SUM(version) AS version FROM change_counters "
+                        + "WHERE location_id IN (?, ?) GROUP BY scope", location, LocationContext.SYSTEM);
+        for (Map<String, Object> row : rows) {
+            versions.put(Scope.valueOf((String) row.get("scope")), ((Number) row.get("version")).longValue());
+        }
+        
+        StringBuilder etag = new StringBuilder("\"").append(variant)
+                .append('-').append(location == null ? LocationContext.SYSTEM : location);
+        for (Scope scope : scopes) {
+            etag.append('-').append(scope.name().charAt(0)).append(versions.getOrDefault(scope, 0L));
+        }
+        return etag.append('"').toString();
+    }
+}
@@ -0,0 +1,88 @@
+package com.restaurant.shifttracker.service;
+
+import com.restaurant.shifttracker.dto.EmployeeSnapshot;
+import com.restaurant.shifttracker.entity.Employee;
+import com.restaurant.shifttracker.repository.EmployeeRepository;
+import com.restaurant.shifttracker.util.LocationContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Cached employee lookups by id and by username. Misses are not cached, so a
+ * newly created employee is visible immediately; changes made through
+ * EmployeeService call {@link #evict} so stale entries never outlive the
+ * transaction that changed the row.
+ */
+@Service
+@RequiredArgsConstructor
+public class EmployeeLookupService {
+    
+    static final String BY_ID = "employees";
+    static final String BY_USERNAME = "employeesByUsername";
+    
+    private final EmployeeRepository employeeRepository;
+    private final CacheManager cacheManager;
+    
+    public Optional<EmployeeSnapshot> findById(Long id) {
+        return lookup(BY_ID, id, () -> employeeRepository.findById(id));
+    }
+    
+    public Optional<EmployeeSnapshot> findByUsername(String username) {
+        return lookup(BY_USERNAME, username, () -> employeeRepository.findByUsername(username));
+    }
+    
+    /**
+     * Entries are shared by all locations, so a hit is only returned when the
+     * caller's location may see it; a load already goes through the
+     * location filter.
+     */
+    private Optional<EmployeeSnapshot> lookup(String cacheName, Object key, Supplier<Optional<Employee>> loader) {
+        Cache cache = cacheManager.getCache(cacheName);
+        EmployeeSnapshot cached = cache == null ? null : cache.get(key, EmployeeSnapshot.class);
+        if (cached != null) {
+            return LocationContext.canSee(cached.locationId()) ? Optional.of(cached) : Optional.empty();
+        }
+        Optional<EmployeeSnapshot> loaded = loader.get().map(EmployeeSnapshot::of);
+        if (cache != null) {
+            loaded.ifPresent(snapshot -> cache.put(key, snapshot));
+        }
+        return loaded;
+    }
+    
+    /**
+     * Evicts the employee and every username it has been known by. Inside a
+     * transaction the eviction runs after commit, so a concurrent reader
+     * cannot re-cache the old row between the eviction and the commit.
+     */
+    public void evict(Long id, String... usernames) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doEvict(id, usernames);
+                }
+            });
+        } else {
+            doEvict(id, usernames);
+        }
+    }
+    
+    private void doEvict(Long id, String... usernames) {
+        Cache byId = cacheManager.getCache(BY_ID);
+        if (byId != null && id != null) {
+            byId.evict(id);
+        }
+        Cache byUsername = cacheManager.getCache(BY_USERNAME);
+        if (byUsername != null) {
+            for (String username : usernames) {
+                byUsername.evict(username);
+            }
+        }
+    }
+}
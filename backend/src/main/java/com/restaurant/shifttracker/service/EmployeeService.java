@@ -1,61 +1,97 @@
 package com.restaurant.shifttracker.service;
 
+import com.restaurant.shifttracker.dto.EmployeeImportResponse;
 import com.restaurant.shifttracker.dto.EmployeeRequest;
 import com.restaurant.shifttracker.dto.EmployeeResponse;
 import com.restaurant.shifttracker.entity.Employee;
+import com.restaurant.shifttracker.event.ShiftEvent;
 import com.restaurant.shifttracker.repository.EmployeeRepository;
+import com.restaurant.shifttracker.repository.ShiftRepository;
+import jakarta.persistence.EntityManager;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import java.util.List;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import java.util.*;
 import java.util.stream.Collectors;
 
+@Observed(name = "service.method")
 @Service
 @RequiredArgsConstructor
 public class EmployeeService {
     
+    // Usernames per IN query and entities per flush during bulk imports
+    private static final int IMPORT_CHUNK_SIZE = 500;
+    
     private final EmployeeRepository employeeRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final ShiftRepository shiftRepository;
+    private final ShiftJournal shiftJournal;
+    private final PasswordHashingService passwordHashingService;
+    private final EmployeeLookupService employeeLookupService;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final ChangeCounters changeCounters;
+    private final ActiveShiftRegistry activeShiftRegistry;
+    
+    @Value("${employee.import.max-rows:20000}")
+    private int maxImportRows;
     
-    @Transactional
     public EmployeeResponse createEmployee(EmployeeRequest request) {
-        if (employeeRepository.existsByUsername(request.getUsername())) {
-            throw new RuntimeException("Username already exists");
+        if (request.getPassword() == null || request.getPassword().trim().isEmpty()) {
+            throw new RuntimeException("Password is required");
         }
+        // Hashed outside the transaction, like imports, so BCrypt never holds a connection
+        String passwordHash = passwordHashingService.encode(request.getPassword().trim());
         
-        Employee employee = Employee.builder()
-                .name(request.getName())
-                .username(request.getUsername())
-                .password(passwordEncoder.encode(request.getPassword()))
-                .role(Employee.Role.EMPLOYEE)
-                .isActive(true)
-                .build();
-        
-        employee = employeeRepository.save(employee);
-        return mapToResponse(employee);
+        return transactionTemplate.execute(status -> {
+            if (employeeRepository.existsByUsernameInAnyLocation(request.getUsername())) {
+                throw new RuntimeException("Username already exists");
+            }
+            
+            Employee employee = Employee.builder()
+                    .name(request.getName())
+                    .username(request.getUsername())
+                    .password(passwordHash)
+                    .role(Employee.Role.EMPLOYEE)
+                    .isActive(true)
+                    .build();
+            
+            employee = employeeRepository.save(employee);
+            changeCounters.bump(ChangeCounters.Scope.EMPLOYEES);
+            return mapToResponse(employee);
+        });
     }
     
-    @Transactional
     public EmployeeResponse updateEmployee(Long id, EmployeeRequest request) {
-        Employee employee = employeeRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Employee not found"));
-        
-        if (!employee.getUsername().equals(request.getUsername()) && 
-            employeeRepository.existsByUsername(request.getUsername())) {
-            throw new RuntimeException("Username already exists");
-        }
-        
-        employee.setName(request.getName());
-        employee.setUsername(request.getUsername());
-        
-        if (request.getPassword() != null && !request.getPassword().trim().isEmpty()) {
-            employee.setPassword(passwordEncoder.encode(request.getPassword().trim()));
-        }
-
+        String passwordHash = request.getPassword() != null && !request.getPassword().trim().isEmpty()
+                ? passwordHashingService.encode(request.getPassword().trim())
+                : null;
         
-        employee = employeeRepository.save(employee);
-        return mapToResponse(employee);
+        return transactionTemplate.execute(status -> {
+            Employee employee = employeeRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Employee not found"));
+            
+            if (!employee.getUsername().equals(request.getUsername()) && 
+                employeeRepository.existsByUsernameInAnyLocation(request.getUsername())) {
+                throw new RuntimeException("Username already exists");
+            }
+            
+            employeeLookupService.evict(id, employee.getUsername(), request.getUsername());
+            employee.setName(request.getName());
+            employee.setUsername(request.getUsername());
+            if (passwordHash != null) {
+                employee.setPassword(passwordHash);
+            }
+            
+            employee = employeeRepository.save(employee);
+            changeCounters.bump(ChangeCounters.Scope.EMPLOYEES);
+            return mapToResponse(employee);
+        });
     }
     
     @Transactional
@@ -67,9 +103,275 @@ public class EmployeeService {
             throw new RuntimeException("Cannot delete admin user");
         }
         
+        // The journal keeps the shifts, closed off by a DELETE event each
+        shiftJournal.appendFinalEvents(ShiftEvent.Type.DELETE, "employee_id = ?", id);
+        shiftRepository.deleteByEmployeeId(id);
         employeeRepository.delete(employee);
+        changeCounters.bump(ChangeCounters.Scope.EMPLOYEES);
+        employeeLookupService.evict(id, employee.getUsername());
+        activeShiftRegistry.evict(id);
+    }
+    
+    /**
+     * Creates (or, with {@code upsert}, updates) many employees at once. Every
+     * row gets its own result; invalid rows fail individually and the rest are
+     * written in one transaction. Existing usernames come from one IN query per
+     * chunk, passwords are hashed in parallel before the transaction starts,
+     * and inserts are JDBC-batched.
+     */
+    public EmployeeImportResponse importEmployees(List<EmployeeRequest> requests, boolean upsert) {
+        if (requests.size() > maxImportRows) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + maxImportRows + " employees per import");
+        }
+        
+        EmployeeImportResponse.Row[] results = new EmployeeImportResponse.Row[requests.size()];
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < requests.size(); i++) {
+            EmployeeRequest request = requests.get(i);
+            String error = validateImportRow(request);
+            if (error == null && !seen.add(request.getUsername())) {
+                error = "Duplicate username in import";
+            }
+            results[i] = EmployeeImportResponse.Row.builder()
+                    .row(i + 1)
+                    .username(request == null ? null : request.getUsername())
+                    .status(error == null ? null : EmployeeImportResponse.Status.FAILED)
+                    .error(error)
+                    .build();
+        }
+        
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < results.length; i++) {
+            if (results[i].getStatus() == null) {
+                pending.add(i);
+            }
+        }
+        
+        Map<String, Employee> existing = new HashMap<>();
+        Set<String> takenElsewhere = new HashSet<>();
+        List<String> usernames = pending.stream().map(i -> requests.get(i).getUsername()).toList();
+        for (List<String> chunk : chunks(usernames)) {
+            employeeRepository.findByUsernameIn(chunk).forEach(e -> existing.put(e.getUsername(), e));
+            takenElsewhere.addAll(employeeRepository.findUsernamesInAnyLocation(chunk));
+        }
+        takenElsewhere.removeAll(existing.keySet());
+        
+        List<Integer> creates = new ArrayList<>();
+        List<Integer> updates = new ArrayList<>();
+        List<Integer> toHash = new ArrayList<>();
+        for (int i : pending) {
+            EmployeeRequest request = requests.get(i);
+            Employee current = existing.get(request.getUsername());
+            if (takenElsewhere.contains(request.getUsername()) || current != null && !upsert) {
+                fail(results[i], "Username already exists");
+                continue;
+            }
+            if (current != null && current.getRole() == Employee.Role.ADMIN) {
+                fail(results[i], "Cannot modify admin user");
+                continue;
+            }
+            if (current == null && (request.getPassword() == null || request.getPassword().trim().isEmpty())) {
+                fail(results[i], "Password is required");
+                continue;
+            }
+            (current == null ? creates : updates).add(i);
+            if (request.getPassword() != null && !request.getPassword().trim().isEmpty()) {
+                toHash.add(i);
+            }
+        }
+        
+        // Hash before the transaction so no connection is held while BCrypt runs
+        List<String> hashes = passwordHashingService.encodeAll(
+                toHash.stream().map(i -> requests.get(i).getPassword().trim()).toList());
+        Map<Integer, String> hashByRow = new HashMap<>();
+        for (int k = 0; k < toHash.size(); k++) {
+            hashByRow.put(toHash.get(k), hashes.get(k));
+        }
+        
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (List<Integer> chunk : chunks(creates)) {
+                    List<Employee> batch = new ArrayList<>(chunk.size());
+                    for (int i : chunk) {
+                        EmployeeRequest request = requests.get(i);
+                        batch.add(Employee.builder()
+                                .name(request.getName())
+                                .username(request.getUsername())
+                                .password(hashByRow.get(i))
+                                .role(Employee.Role.EMPLOYEE)
+                                .isActive(true)
+                                .build());
+                    }
+                    employeeRepository.saveAll(batch);
+                    employeeRepository.flush();
+                    for (int k = 0; k < chunk.size(); k++) {
+                        results[chunk.get(k)].setStatus(EmployeeImportResponse.Status.CREATED);
+                        results[chunk.get(k)].setId(batch.get(k).getId());
+                    }
+                    // Keep the persistence context small on large imports
+                    entityManager.clear();
+                }
+                
+                for (List<Integer> chunk : chunks(updates)) {
+                    Map<String, Employee> managed = new HashMap<>();
+                    employeeRepository.findByUsernameIn(chunk.stream().map(i -> requests.get(i).getUsername()).toList())
+                            .forEach(e -> managed.put(e.getUsername(), e));
+                    for (int i : chunk) {
+                        Employee employee = managed.get(requests.get(i).getUsername());
+                        if (employee == null) {
+                            fail(results[i], "Employee not found");
+                            continue;
+                        }
+                        employee.setName(requests.get(i).getName());
+                        if (hashByRow.containsKey(i)) {
+                            employee.setPassword(hashByRow.get(i));
+                        }
+                        results[i].setStatus(EmployeeImportResponse.Status.UPDATED);
+                        results[i].setId(employee.getId());
+                        employeeLookupService.evict(employee.getId(), employee.getUsername());
+                    }
+                    employeeRepository.flush();
+                    entityManager.clear();
+                }
+                if (!creates.isEmpty() || !updates.isEmpty()) {
+                    changeCounters.bump(ChangeCounters.Scope.EMPLOYEES);
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // A username was taken between the uniqueness check and the insert
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Username already exists, retry the import");
+        }
+        
+        int created = 0;
+        int updated = 0;
+        int failed = 0;
+        for (EmployeeImportResponse.Row row : results) {
+            switch (row.getStatus()) {
+                case CREATED -> created++;
+                case UPDATED -> updated++;
+                case FAILED -> failed++;
+            }
+        }
+        return EmployeeImportResponse.builder()
+                .created(created)
+                .updated(updated)
+                .failed(failed)
+                .rows(Arrays.asList(results))
+                .build();
+    }
+    
+    private static <T> List<List<T>> chunks(List<T> items) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int start = 0; start < items.size(); start += IMPORT_CHUNK_SIZE) {
+            chunks.add(items.subList(start, Math.min(start + IMPORT_CHUNK_SIZE, items.size())));
+        }
+        return chunks;
+    }
+    
+    private static String validateImportRow(EmployeeRequest request) {
+        if (request == null) {
+            return "Empty row";
+        }
+        if (request.getName() == null || request.getName().isBlank()) {
+            return "Name is required";
+        }
+        if (request.getUsername() == null || request.getUsername().isBlank()) {
+            return "Username is required";
+        }
+        if (request.getName().length() > 100) {
+            return "Name is too long";
+        }
+        if (request.getUsername().length() > 50) {
+            return "Username is too long";
+        }
+        return null;
+    }
+    
+    private static void fail(EmployeeImportResponse.Row row, String error) {
+        row.setStatus(EmployeeImportResponse.Status.FAILED);
+        row.setError(error);
+    }
+    
+    /**
+     * Parses CSV with a header row naming the columns name, username and
+     * password (any order). Quoted fields may contain commas and doubled quotes.
+     */
+    public static List<EmployeeRequest> parseCsv(String csv) {
+        List<List<String>> records = readCsvRecords(csv);
+        if (records.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<String> header = records.get(0).stream().map(h -> h.trim().toLowerCase()).toList();
+        int nameColumn = header.indexOf("name");
+        int usernameColumn = header.indexOf("username");
+        int passwordColumn = header.indexOf("password");
+        if (nameColumn < 0 || usernameColumn < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "CSV header must contain name, username and password columns");
+        }
+        
+        List<EmployeeRequest> requests = new ArrayList<>(records.size() - 1);
+        for (List<String> record : records.subList(1, records.size())) {
+            requests.add(new EmployeeRequest(
+                    column(record, nameColumn),
+                    column(record, usernameColumn),
+                    column(record, passwordColumn)));
+        }
+        return requests;
+    }
+    
+    private static String column(List<String> record, int index) {
+        if (index < 0 || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+    
+    private static List<List<String>> readCsvRecords(String csv) {
+        List<List<String>> records = new ArrayList<>();
+        List<String> record = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < csv.length(); i++) {
+            char c = csv.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < csv.length() && csv.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                record.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && i + 1 < csv.length() && csv.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                record.add(field.toString());
+                field.setLength(0);
+                if (!(record.size() == 1 && record.get(0).isBlank())) {
+                    records.add(record);
+                }
+                record = new ArrayList<>();
+            } else {
+                field.append(c);
+            }
+        }
+        record.add(field.toString());
+        if (!(record.size() == 1 && record.get(0).isBlank())) {
+            records.add(record);
+        }
+        return records;
     }
     
+    @Transactional(readOnly = true)
     public List<EmployeeResponse> getAllEmployees() {
         return employeeRepository.findAll().stream()
                 .map(this::mapToResponse)
@@ -0,0 +1,105 @@
+package com.restaurant.shifttracker.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.restaurant.shifttracker.dto.ShiftResponse;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the response to each Idempotency-Key for a while, so a retried
+ * clock-in or clock-out gets the original response without touching the
+ * database. Keys are scoped to the caller. A duplicate that arrives while the
+ * first request is still running waits for its result instead of running
+ * again.
+ *
+ * Failed requests are not remembered: the key is released and a retry runs
+ * afresh, while duplicates already waiting see the same error. The store is
+ * per instance, which is enough as long as retries reach the same backend.
+ */
+@Service
+public class IdempotencyStore {
+    
+    private static final int MAX_KEY_LENGTH = 255;
+    
+    @Value("${shift.idempotency.ttl-minutes:60}")
+    private long ttlMinutes;
+    
+    @Value("${shift.idempotency.max-keys:100000}")
+    private long maxKeys;
+    
+    @Value("${shift.idempotency.wait-timeout-ms:30000}")
+    private long waitTimeoutMs;
+    
+    private Cache<String, Entry> entries;
+    
+    private record Entry(String operation, CompletableFuture<ShiftResponse> response) {
+    }
+    
+    @PostConstruct
+    void init() {
+        entries = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .maximumSize(maxKeys)
+                .build();
+    }
+    
+    /**
+     * Runs {@code action} once per caller and key; without a key it simply runs.
+     */
+    public ShiftResponse execute(Long userId, String operation, String idempotencyKey, Supplier<ShiftResponse> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid Idempotency-Key");
+        }
+        
+        String cacheKey = userId + ":" + idempotencyKey;
+        Entry mine = new Entry(operation, new CompletableFuture<>());
+        Entry existing = entries.asMap().putIfAbsent(cacheKey, mine);
+        if (existing != null) {
+            if (!existing.operation().equals(operation)) {
+                throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                        "Idempotency-Key was already used for another request");
+            }
+            return await(existing.response());
+        }
+        
+        try {
+            ShiftResponse response = action.get();
+            mine.response().complete(response);
+            return response;
+        } catch (RuntimeException | Error e) {
+            entries.asMap().remove(cacheKey, mine);
+            mine.response().completeExceptionally(e);
+            throw e;
+        }
+    }
+    
+    private ShiftResponse await(CompletableFuture<ShiftResponse> response) {
+        try {
+            return response.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "A request with this Idempotency-Key is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+}
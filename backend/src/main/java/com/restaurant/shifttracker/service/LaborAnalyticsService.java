@@ -0,0 +1,335 @@
+package com.restaurant.shifttracker.service;
+
+import com.restaurant.shifttracker.dto.EmployeeSnapshot;
+import com.restaurant.shifttracker.dto.LaborAnalyticsResponse;
+import com.restaurant.shifttracker.util.LocationContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Staffing analytics over an arbitrary range: average and peak headcount per
+ * 15-minute bucket, labor hours by day of week and hour, and weekly overtime.
+ *
+ * Shifts are read straight into primitive arrays as minute offsets from the
+ * start of the range. Occupancy comes from one sweep over the sorted clock-in
+ * and clock-out events; overtime is computed per employee, in parallel on the
+ * common fork-join pool. Nothing is boxed or BigDecimal per shift.
+ */
+@Service
+@RequiredArgsConstructor
+public class LaborAnalyticsService {
+    
+    static final int BUCKET_MINUTES = 15;
+    private static final int MINUTES_PER_HOUR = 60;
+    private static final int MINUTES_PER_WEEK = 7 * 24 * MINUTES_PER_HOUR;
+    private static final int EMPLOYEES_PER_TASK = 32;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final EmployeeLookupService employeeLookupService;
+    
+    @Value("${analytics.max-range-days:400}")
+    private int maxRangeDays;
+    
+    @Value("${analytics.weekly-overtime-hours:40}")
+    private int weeklyOvertimeHours;
+    
+    // Shifts starting this long before the range are still read, so that
+    // clock_in can bound the index scan from both sides
+    @Value("${analytics.max-shift-hours:24}")
+    private int maxShiftHours;
+    
+    public LaborAnalyticsResponse analyze(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must be before 'to'");
+        }
+        if (Duration.between(from, to).toDays() > maxRangeDays) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Range must not exceed " + maxRangeDays + " days");
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        int rangeMinutes = (int) ChronoUnit.MINUTES.between(from, to);
+        long fromEpochMinute = epochMinute(from);
+        int nowOffset = (int) Math.min(rangeMinutes, Math.max(0, epochMinute(now) - fromEpochMinute));
+        
+        // Plain JDBC is not covered by the Hibernate location filter
+        Long location = LocationContext.current();
+        List<Object> params = new ArrayList<>(List.of(
+                Timestamp.valueOf(from.minusHours(maxShiftHours)), Timestamp.valueOf(to), Timestamp.valueOf(from)));
+        if (location != null) {
+            params.add(location);
+        }
+        
+        ShiftIntervals shifts = new ShiftIntervals();
+        jdbcTemplate.query(
+                "SELECT employee_id, clock_in, clock_out FROM shifts "
+                        + "WHERE clock_in >= ? AND clock_in < ? AND (clock_out IS NULL OR clock_out > ?) "
+                        + (location != null ? "AND location_id = ? " : "")
+                        + "ORDER BY employee_id, clock_in",
+                rs -> {
+                    long start = epochMinute(rs.getTimestamp(2).toLocalDateTime()) - fromEpochMinute;
+                    Timestamp clockOut = rs.getTimestamp(3);
+                    long end = clockOut == null ? nowOffset : epochMinute(clockOut.toLocalDateTime()) - fromEpochMinute;
+                    shifts.add(rs.getLong(1),
+                            (int) Math.max(0, start),
+                            (int) Math.min(rangeMinutes, end));
+                },
+                params.toArray());
+        
+        LocalDateTime weekStart = from.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).atStartOfDay();
+        int weekOffset = (int) ChronoUnit.MINUTES.between(weekStart, from);
+        Result result = compute(shifts, rangeMinutes, cellsOfBuckets(from, rangeMinutes),
+                weekOffset, weeklyOvertimeHours * MINUTES_PER_HOUR);
+        
+        return toResponse(from, to, result, weekStart.toLocalDate());
+    }
+    
+    private static long epochMinute(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+    
+    /**
+     * Day-of-week/hour cell (Monday 00:00 = 0 ... Sunday 23:00 = 167) for each
+     * bucket of the range.
+     */
+    static int[] cellsOfBuckets(LocalDateTime from, int rangeMinutes) {
+        int buckets = (rangeMinutes + BUCKET_MINUTES - 1) / BUCKET_MINUTES;
+        int[] cells = new int[buckets];
+        LocalDateTime time = from;
+        for (int b = 0; b < buckets; b++) {
+            cells[b] = (time.getDayOfWeek().getValue() - 1) * 24 + time.getHour();
+            time = time.plusMinutes(BUCKET_MINUTES);
+        }
+        return cells;
+    }
+    
+    /**
+     * Shift intervals as parallel primitive arrays of minute offsets, grouped
+     * by employee and ordered by start within each employee.
+     */
+    static final class ShiftIntervals {
+        
+        int size;
+        long[] employeeIds = new long[1024];
+        int[] starts = new int[1024];
+        int[] ends = new int[1024];
+        
+        void add(long employeeId, int start, int end) {
+            if (end <= start) {
+                return;
+            }
+            if (size == starts.length) {
+                employeeIds = Arrays.copyOf(employeeIds, size * 2);
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+            employeeIds[size] = employeeId;
+            starts[size] = start;
+            ends[size] = end;
+            size++;
+        }
+    }
+    
+    record Overtime(long employeeId, int weekIndex, int workedMinutes) {
+    }
+    
+    record Result(long[] bucketMinutes, int[] peakHeadcount, long[] cellMinutes,
+                  long totalMinutes, List<Overtime> overtime) {
+    }
+    
+    static Result compute(ShiftIntervals shifts, int rangeMinutes, int[] cellOfBucket,
+                          int weekOffset, int overtimeThresholdMinutes) {
+        int buckets = cellOfBucket.length;
+        long[] bucketMinutes = new long[buckets];
+        int[] peak = new int[buckets];
+        long[] cellMinutes = new long[7 * 24];
+        
+        // Sweep: each event is (minute << 1 | 1) for clock-in, (minute << 1) for
+        // clock-out, so at equal minutes clock-outs sort first and back-to-back
+        // shifts do not inflate the peak.
+        long[] events = new long[shifts.size * 2];
+        for (int i = 0; i < shifts.size; i++) {
+            events[2 * i] = ((long) shifts.starts[i] << 1) | 1;
+            events[2 * i + 1] = (long) shifts.ends[i] << 1;
+        }
+        Arrays.sort(events);
+        
+        long totalMinutes = 0;
+        int headcount = 0;
+        int previous = 0;
+        for (long event : events) {
+            int minute = (int) (event >>> 1);
+            if (minute > previous && headcount > 0) {
+                totalMinutes += accumulate(previous, minute, headcount, bucketMinutes, peak, cellMinutes, cellOfBucket);
+            }
+            previous = minute;
+            headcount += (event & 1) == 1 ? 1 : -1;
+        }
+        
+        int[] boundaries = employeeBoundaries(shifts);
+        List<Overtime> overtime = ForkJoinPool.commonPool().invoke(new OvertimeTask(
+                shifts, boundaries, 0, boundaries.length - 1, weekOffset, overtimeThresholdMinutes));
+        
+        return new Result(bucketMinutes, peak, cellMinutes, totalMinutes, overtime);
+    }
+    
+    private static long accumulate(int from, int to, int headcount, long[] bucketMinutes, int[] peak,
+                                   long[] cellMinutes, int[] cellOfBucket) {
+        long total = 0;
+        int bucket = from / BUCKET_MINUTES;
+        while (from < to) {
+            int bucketEnd = Math.min(to, (bucket + 1) * BUCKET_MINUTES);
+            long minutes = (long) headcount * (bucketEnd - from);
+            bucketMinutes[bucket] += minutes;
+            cellMinutes[cellOfBucket[bucket]] += minutes;
+            if (headcount > peak[bucket]) {
+                peak[bucket] = headcount;
+            }
+            total += minutes;
+            from = bucketEnd;
+            bucket++;
+        }
+        return total;
+    }
+    
+    /**
+     * Index of the first shift of each employee, plus a final entry equal to
+     * the shift count.
+     */
+    private static int[] employeeBoundaries(ShiftIntervals shifts) {
+        int[] boundaries = new int[shifts.size + 1];
+        int count = 0;
+        for (int i = 0; i < shifts.size; i++) {
+            if (i == 0 || shifts.employeeIds[i] != shifts.employeeIds[i - 1]) {
+                boundaries[count++] = i;
+            }
+        }
+        boundaries[count++] = shifts.size;
+        return Arrays.copyOf(boundaries, count);
+    }
+    
+    /**
+     * Weekly minutes per employee over a slice of employees; splits further
+     * until a slice holds at most EMPLOYEES_PER_TASK employees.
+     */
+    private static final class OvertimeTask extends RecursiveTask<List<Overtime>> {
+        
+        private final ShiftIntervals shifts;
+        private final int[] boundaries;
+        private final int fromEmployee;
+        private final int toEmployee;
+        private final int weekOffset;
+        private final int thresholdMinutes;
+        
+        OvertimeTask(ShiftIntervals shifts, int[] boundaries, int fromEmployee, int toEmployee,
+                     int weekOffset, int thresholdMinutes) {
+            this.shifts = shifts;
+            this.boundaries = boundaries;
+            this.fromEmployee = fromEmployee;
+            this.toEmployee = toEmployee;
+            this.weekOffset = weekOffset;
+            this.thresholdMinutes = thresholdMinutes;
+        }
+        
+        @Override
+        protected List<Overtime> compute() {
+            if (toEmployee - fromEmployee > EMPLOYEES_PER_TASK) {
+                int middle = (fromEmployee + toEmployee) >>> 1;
+                OvertimeTask left = new OvertimeTask(shifts, boundaries, fromEmployee, middle, weekOffset, thresholdMinutes);
+                OvertimeTask right = new OvertimeTask(shifts, boundaries, middle, toEmployee, weekOffset, thresholdMinutes);
+                left.fork();
+                List<Overtime> result = new ArrayList<>(right.compute());
+                result.addAll(left.join());
+                return result;
+            }
+            
+            List<Overtime> result = new ArrayList<>();
+            for (int e = fromEmployee; e < toEmployee; e++) {
+                int week = -1;
+                int minutes = 0;
+                for (int i = boundaries[e]; i < boundaries[e + 1]; i++) {
+                    // Split at week boundaries; shifts are ordered, so weeks only move forward
+                    int start = shifts.starts[i] + weekOffset;
+                    int end = shifts.ends[i] + weekOffset;
+                    while (start < end) {
+                        int startWeek = start / MINUTES_PER_WEEK;
+                        if (startWeek != week) {
+                            if (minutes > thresholdMinutes) {
+                                result.add(new Overtime(shifts.employeeIds[i], week, minutes));
+                            }
+                            week = startWeek;
+                            minutes = 0;
+                        }
+                        int segmentEnd = Math.min(end, (startWeek + 1) * MINUTES_PER_WEEK);
+                        minutes += segmentEnd - start;
+                        start = segmentEnd;
+                    }
+                }
+                if (minutes > thresholdMinutes) {
+                    result.add(new Overtime(shifts.employeeIds[boundaries[e]], week, minutes));
+                }
+            }
+            return result;
+        }
+    }
+    
+    private LaborAnalyticsResponse toResponse(LocalDateTime from, LocalDateTime to, Result result, LocalDate firstWeek) {
+        double[] averageHeadcount = new double[result.bucketMinutes().length];
+        for (int b = 0; b < averageHeadcount.length; b++) {
+            averageHeadcount[b] = round2((double) result.bucketMinutes()[b] / BUCKET_MINUTES);
+        }
+        
+        double[][] laborHours = new double[7][24];
+        for (int cell = 0; cell < result.cellMinutes().length; cell++) {
+            laborHours[cell / 24][cell % 24] = round2((double) result.cellMinutes()[cell] / MINUTES_PER_HOUR);
+        }
+        
+        List<LaborAnalyticsResponse.OvertimeEntry> overtime = new ArrayList<>(result.overtime().size());
+        for (Overtime entry : result.overtime()) {
+            LocalDate weekStart = firstWeek.plusWeeks(entry.weekIndex());
+            overtime.add(LaborAnalyticsResponse.OvertimeEntry.builder()
+                    .employeeId(entry.employeeId())
+                    .employeeName(employeeLookupService.findById(entry.employeeId())
+                            .map(EmployeeSnapshot::name).orElse(null))
+                    .weekStart(weekStart)
+                    .isoWeek(WeeklyHoursSummaryService.isoWeekOf(weekStart))
+                    .workedHours(round2((double) entry.workedMinutes() / MINUTES_PER_HOUR))
+                    .overtimeHours(round2((double) (entry.workedMinutes() - weeklyOvertimeHours * MINUTES_PER_HOUR)
+                            / MINUTES_PER_HOUR))
+                    .build());
+        }
+        
+        return LaborAnalyticsResponse.builder()
+                .from(from)
+                .to(to)
+                .bucketMinutes(BUCKET_MINUTES)
+                .averageHeadcount(averageHeadcount)
+                .peakHeadcount(result.peakHeadcount())
+                .laborHoursByDayOfWeekAndHour(laborHours)
+                .totalLaborHours(round2((double) result.totalMinutes() / MINUTES_PER_HOUR))
+                .weeklyOvertimeThresholdHours(weeklyOvertimeHours)
+                .overtime(overtime)
+                .build();
+    }
+    
+    private static double round2(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,92 @@
+package com.restaurant.shifttracker.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts failed logins per username and per client IP over a fixed window.
+ * Checked before any password hash runs, so a credential-stuffing wave is
+ * turned away with a 429 for the cost of a map lookup.
+ *
+ * The client IP is only known when the proxy in front (the BFF) is listed in
+ * server.tomcat.remoteip.internal-proxies. Without that every login arrives
+ * from the proxy's address, so the per-IP count is skipped.
+ */
+@Service
+public class LoginThrottle {
+    
+    @Value("${auth.throttle.max-failures-per-username:5}")
+    private int maxFailuresPerUsername;
+    
+    @Value("${auth.throttle.max-failures-per-ip:50}")
+    private int maxFailuresPerIp;
+    
+    @Value("${auth.throttle.window-minutes:15}")
+    private long windowMinutes;
+    
+    @Value("${auth.throttle.max-tracked-keys:100000}")
+    private long maxTrackedKeys;
+    
+    @Value("${server.tomcat.remoteip.internal-proxies:}")
+    private String trustedProxies;
+    
+    private Cache<String, AtomicInteger> usernameFailures;
+    private Cache<String, AtomicInteger> ipFailures;
+    
+    @PostConstruct
+    void init() {
+        usernameFailures = newCounterCache();
+        ipFailures = newCounterCache();
+    }
+    
+    private Cache<String, AtomicInteger> newCounterCache() {
+        // The window starts at the first failure; later failures do not extend it
+        return Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(windowMinutes))
+                .maximumSize(maxTrackedKeys)
+                .build();
+    }
+    
+    public void checkAllowed(String username, String clientIp) {
+        if (exceeded(usernameFailures, username, maxFailuresPerUsername)
+                || exceeded(ipFailures, ipKey(clientIp), maxFailuresPerIp)) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many failed login attempts, try again later");
+        }
+    }
+    
+    public void recordFailure(String username, String clientIp) {
+        increment(usernameFailures, username);
+        increment(ipFailures, ipKey(clientIp));
+    }
+    
+    public void recordSuccess(String username) {
+        if (username != null) {
+            usernameFailures.invalidate(username);
+        }
+    }
+    
+    private String ipKey(String clientIp) {
+        return trustedProxies.isBlank() ? null : clientIp;
+    }
+    
+    private boolean exceeded(Cache<String, AtomicInteger> failures, String key, int limit) {
+        if (key == null) {
+            return false;
+        }
+        AtomicInteger count = failures.getIfPresent(key);
+        return count != null && count.get() >= limit;
+    }
+    
+    private void increment(Cache<String, AtomicInteger> failures, String key) {
+        if (key != null) {
+            failures.get(key, k -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+}
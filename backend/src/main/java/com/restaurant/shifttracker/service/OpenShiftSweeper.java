@@ -0,0 +1,189 @@
+package com.restaurant.shifttracker.service;
+
+import com.restaurant.shifttracker.dto.ShiftResponse;
+import com.restaurant.shifttracker.entity.Shift;
+import com.restaurant.shifttracker.event.ShiftEvent;
+import com.restaurant.shifttracker.repository.ShiftRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Finds shifts that were never clocked out. An open shift blocks the next
+ * clock-in and has no minutes, so it is missing from payroll until someone
+ * notices.
+ *
+ * Shifts open longer than shift.auto-close.max-shift-hours are either closed
+ * at clock-in plus that length (action=close; the ADJUST endpoint corrects
+ * them afterwards) or only marked OVERLONG (action=flag). Either way the shift
+ * gets a journal event, so ETags, the live feed and replays see the change. Open shifts are read
+ * in small keyset pages off idx_clock_out_clock_in and each page is written in
+ * its own short transaction with compare-and-set updates, so the sweep only
+ * ever holds a batch's row locks and a concurrent clock-out always wins.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OpenShiftSweeper {
+    
+    // Before any TIMESTAMP MySQL can store; the first page starts after it
+    private static final LocalDateTime KEYSET_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    
+    private final ShiftRepository shiftRepository;
+    private final WeeklyHoursSummaryService weeklyHoursSummaryService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${shift.auto-close.enabled:true}")
+    private boolean enabled;
+    
+    // Bound at startup, so a misspelt action fails the boot rather than every run
+    @Value("${shift.auto-close.action:close}")
+    private Action action;
+    
+    @Value("${shift.auto-close.max-shift-hours:16}")
+    private int maxShiftHours;
+    
+    @Value("${shift.auto-close.batch-size:200}")
+    private int batchSize;
+    
+    @Value("${shift.auto-close.batch-pause-ms:100}")
+    private long batchPauseMs;
+    
+    private Counter closedCounter;
+    private Counter flaggedCounter;
+    private DistributionSummary openHours;
+    
+    public enum Action {
+        CLOSE, FLAG
+    }
+    
+    public record SweepResult(int closed, int flagged) {
+    }
+    
+    @PostConstruct
+    void registerMeters() {
+        closedCounter = Counter.builder("shift.autoclose.shifts").tag("action", "closed")
+                .description("Open shifts closed at the maximum shift length").register(meterRegistry);
+        flaggedCounter = Counter.builder("shift.autoclose.shifts").tag("action", "flagged")
+                .description("Open shifts flagged as over the maximum shift length").register(meterRegistry);
+        openHours = DistributionSummary.builder("shift.autoclose.open.hours")
+                .description("How long auto-closed shifts had been open").baseUnit("hours").register(meterRegistry);
+    }
+    
+    @Scheduled(cron = "${shift.auto-close.cron:0 20 * * * *}")
+    public void scheduledSweep() {
+        if (enabled) {
+            SweepResult result = sweep(action, LocalDateTime.now());
+            if (result.closed() > 0 || result.flagged() > 0) {
+                log.info("Open shift sweep: {} closed, {} flagged", result.closed(), result.flagged());
+            }
+        }
+    }
+    
+    /**
+     * Closes or flags every shift that clocked in more than the maximum shift
+     * length before {@code now}.
+     */
+    public SweepResult sweep(Action action, LocalDateTime now) {
+        Duration maxLength = Duration.ofHours(maxShiftHours);
+        LocalDateTime cutoff = now.minus(maxLength);
+        
+        LocalDateTime afterClockIn = KEYSET_START;
+        long afterId = Long.MIN_VALUE;
+        int swept = 0;
+        while (true) {
+            List<Shift> batch = shiftRepository.findOverlongOpenShifts(cutoff, afterClockIn, afterId,
+                    action == Action.FLAG, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            Integer count = transactionTemplate.execute(status -> action == Action.CLOSE
+                    ? closeBatch(batch, maxLength, now)
+                    : flagBatch(batch, now));
+            swept += count;
+            
+            Shift last = batch.get(batch.size() - 1);
+            afterClockIn = last.getClockIn();
+            afterId = last.getId();
+            if (batch.size() < batchSize) {
+                break;
+            }
+            pause();
+        }
+        return action == Action.CLOSE ? new SweepResult(swept, 0) : new SweepResult(0, swept);
+    }
+    
+    // Same bookkeeping as a clock-out: weekly total, and the CLOCK_OUT event for
+    // the journal, the active shift registry, the ETags and the live feed
+    private int closeBatch(List<Shift> batch, Duration maxLength, LocalDateTime now) {
+        int closed = 0;
+        for (Shift shift : batch) {
+            LocalDateTime clockOut = shift.getClockIn().plus(maxLength);
+            int minutes = (int) maxLength.toMinutes();
+            if (shiftRepository.closeIfOpen(shift.getId(), clockOut, minutes, Shift.Anomaly.AUTO_CLOSED, now) == 0) {
+                continue;
+            }
+            weeklyHoursSummaryService.recordClosedShift(shift.getEmployee().getId(), shift.getClockIn(), minutes);
+            eventPublisher.publishEvent(new ShiftEvent(ShiftEvent.Type.CLOCK_OUT, response(shift, clockOut, minutes),
+                    Shift.Anomaly.AUTO_CLOSED));
+            closedCounter.increment();
+            openHours.record(Duration.between(shift.getClockIn(), now).toMinutes() / 60.0);
+            closed++;
+        }
+        return closed;
+    }
+    
+    // One compare-and-set per shift, so each flag that lands gets its FLAG event
+    private int flagBatch(List<Shift> batch, LocalDateTime now) {
+        int flagged = 0;
+        for (Shift shift : batch) {
+            if (shiftRepository.flagIfOpen(shift.getId(), Shift.Anomaly.OVERLONG, now) == 0) {
+                continue;
+            }
+            eventPublisher.publishEvent(new ShiftEvent(ShiftEvent.Type.FLAG, response(shift, null, null),
+                    Shift.Anomaly.OVERLONG));
+            flaggedCounter.increment();
+            flagged++;
+        }
+        return flagged;
+    }
+    
+    private static ShiftResponse response(Shift shift, LocalDateTime clockOut, Integer minutes) {
+        return ShiftResponse.builder()
+                .id(shift.getId())
+                .employeeId(shift.getEmployee().getId())
+                .employeeName(shift.getEmployee().getName())
+                .clockIn(shift.getClockIn())
+                .clockOut(clockOut)
+                .totalMinutes(minutes)
+                .locationId(shift.getLocationId())
+                .build();
+    }
+    
+    // Leaves room for clock-ins and clock-outs between batches
+    private void pause() {
+        if (batchPauseMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(batchPauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Open shift sweep interrupted");
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.restaurant.shifttracker.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt on a dedicated pool with a bounded queue, so a login burst
+ * cannot take every request thread or every core: by default it gets half the
+ * CPUs, and when its queue is full callers get an immediate 503 instead of
+ * waiting. Publishes auth.hash.duration (time hashing), auth.hash.queue.wait
+ * (time queued) and auth.hash.queue.depth.
+ */
+@Service
+@RequiredArgsConstructor
+public class PasswordHashingService {
+    
+    private static final int BULK_CHUNK_SIZE = 8;
+    
+    private final PasswordEncoder passwordEncoder;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${auth.hashing.threads:0}")
+    private int threads;
+    
+    @Value("${auth.hashing.queue-capacity:64}")
+    private int queueCapacity;
+    
+    @Value("${auth.hashing.timeout-ms:10000}")
+    private long timeoutMs;
+    
+    private ThreadPoolExecutor executor;
+    private Timer encodeTimer;
+    private Timer matchesTimer;
+    private Timer queueWaitTimer;
+    
+    @PostConstruct
+    void start() {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadIds = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadIds.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        
+        encodeTimer = Timer.builder("auth.hash.duration").tag("operation", "encode")
+                .publishPercentiles(0.5, 0.99).register(meterRegistry);
+        matchesTimer = Timer.builder("auth.hash.duration").tag("operation", "matches")
+                .publishPercentiles(0.5, 0.99).register(meterRegistry);
+        queueWaitTimer = Timer.builder("auth.hash.queue.wait")
+                .publishPercentiles(0.5, 0.99).register(meterRegistry);
+        Gauge.builder("auth.hash.queue.depth", executor, e -> e.getQueue().size()).register(meterRegistry);
+    }
+    
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+    
+    public String encode(String rawPassword) {
+        return run(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+    
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return run(matchesTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+    
+    /**
+     * Hashes a batch across every pool thread. Work goes in as small chunks with
+     * at most one chunk per thread outstanding, so logins submitted meanwhile
+     * queue behind a chunk rather than behind the whole batch.
+     */
+    public List<String> encodeAll(List<String> rawPasswords) {
+        String[] hashes = new String[rawPasswords.size()];
+        Semaphore inFlight = new Semaphore(executor.getMaximumPoolSize());
+        List<Future<?>> chunks = new ArrayList<>();
+        try {
+            for (int start = 0; start < hashes.length; start += BULK_CHUNK_SIZE) {
+                int from = start;
+                int to = Math.min(start + BULK_CHUNK_SIZE, hashes.length);
+                inFlight.acquire();
+                try {
+                    chunks.add(executor.submit(() -> {
+                        try {
+                            for (int i = from; i < to; i++) {
+                                String raw = rawPasswords.get(i);
+                                hashes[i] = encodeTimer.record(() -> passwordEncoder.encode(raw));
+                            }
+                        } finally {
+                            inFlight.release();
+                        }
+                    }));
+                } catch (RejectedExecutionException e) {
+                    inFlight.release();
+                    throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Server busy, try again");
+                }
+            }
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            chunks.forEach(chunk -> chunk.cancel(true));
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Server busy, try again");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        return Arrays.asList(hashes);
+    }
+    
+    private <T> T run(Timer timer, Callable<T> work) {
+        long queuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueWaitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return timer.recordCallable(work);
+            });
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Server busy, try again");
+        }
+        
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Server busy, try again");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Server busy, try again");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
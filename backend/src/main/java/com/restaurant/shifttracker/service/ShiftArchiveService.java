@@ -0,0 +1,213 @@
+package com.restaurant.shifttracker.service;
+
+import com.restaurant.shifttracker.dto.ShiftResponse;
+import com.restaurant.shifttracker.util.LocationContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzipped CSV archive of closed shifts under shift.archive.dir, one or more
+ * segment files per month (shifts-yyyyMM.csv.gz, shifts-yyyyMM-1.csv.gz, ...).
+ *
+ * Segments are written newest first, by (clock_in, id) descending, so a
+ * history page can stop reading a segment once it has enough rows. A segment
+ * is written to a temporary file and renamed into place, and never rewritten:
+ * a month archived across two runs simply has two segments. A run that dies
+ * between writing a segment and removing the rows archives them again next
+ * time, so readers drop duplicate ids.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ShiftArchiveService {
+    
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final Pattern SEGMENT = Pattern.compile("shifts-(\\d{6})(?:-(\\d+))?\\.csv\\.gz");
+    private static final String HEADER = "id,employee_id,location_id,clock_in,clock_out,total_minutes,employee_name";
+    private static final Comparator<ShiftResponse> NEWEST_FIRST = Comparator
+            .comparing(ShiftResponse::getClockIn).thenComparing(ShiftResponse::getId).reversed();
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Value("${shift.archive.dir:shift-archive}")
+    private Path archiveDir;
+    
+    public record ArchivedMonth(YearMonth month, Path segment, long[] shiftIds) {
+    }
+    
+    /**
+     * Copies the closed shifts that clocked in during {@code month} into a new
+     * segment. Returns the ids written, which are the only rows the caller may
+     * remove; a shift closed after the copy started is left for the next run.
+     */
+    public ArchivedMonth archiveMonth(YearMonth month) throws IOException {
+        Files.createDirectories(archiveDir);
+        Path temp = Files.createTempFile(archiveDir, "shifts-" + month.format(MONTH), ".tmp");
+        long[][] ids = {new long[1024]};
+        int[] count = {0};
+        
+        try (FileOutputStream file = new FileOutputStream(temp.toFile());
+             Writer writer = new BufferedWriter(new OutputStreamWriter(
+                     new GZIPOutputStream(file, 64 * 1024), StandardCharsets.UTF_8))) {
+            writer.write(HEADER + "\n");
+            jdbcTemplate.query(
+                    "SELECT s.id, s.employee_id, s.location_id, s.clock_in, s.clock_out, s.total_minutes, e.name "
+                            + "FROM shifts s JOIN employees e ON e.id = s.employee_id "
+                            + "WHERE s.clock_in >= ? AND s.clock_in < ? AND s.clock_out IS NOT NULL "
+                            + "ORDER BY s.clock_in DESC, s.id DESC",
+                    rs -> {
+                        long id = rs.getLong(1);
+                        if (count[0] == ids[0].length) {
+                            ids[0] = Arrays.copyOf(ids[0], count[0] * 2);
+                        }
+                        ids[0][count[0]++] = id;
+                        try {
+                            writer.write(id + "," + rs.getLong(2) + "," + rs.getLong(3) + ","
+                                    + rs.getTimestamp(4).toLocalDateTime() + "," + rs.getTimestamp(5).toLocalDateTime() + ","
+                                    + rs.getInt(6) + "," + rs.getString(7).replace('\n', ' ').replace('\r', ' ') + "\n");
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    },
+                    Timestamp.valueOf(month.atDay(1).atStartOfDay()),
+                    Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay()));
+            writer.flush();
+            file.getFD().sync();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        
+        if (count[0] == 0) {
+            Files.delete(temp);
+            return new ArchivedMonth(month, null, new long[0]);
+        }
+        Path segment = nextSegment(month);
+        Files.move(temp, segment, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Archived {} shift(s) for {} to {}", count[0], month, segment);
+        return new ArchivedMonth(month, segment, Arrays.copyOf(ids[0], count[0]));
+    }
+    
+    private Path nextSegment(YearMonth month) {
+        String base = "shifts-" + month.format(MONTH);
+        Path segment = archiveDir.resolve(base + ".csv.gz");
+        for (int n = 1; Files.exists(segment); n++) {
+            segment = archiveDir.resolve(base + "-" + n + ".csv.gz");
+        }
+        return segment;
+    }
+    
+    /**
+     * Archived continuation of a shift history page: up to {@code limit} shifts
+     * with clockIn at or after {@code from} and strictly before the cursor
+     * (cursorClockIn, cursorId), newest first, in the caller's location.
+     */
+    public List<ShiftResponse> readPage(LocalDateTime from, LocalDateTime cursorClockIn, long cursorId,
+                                        Collection<Long> employeeIds, int limit) {
+        NavigableMap<YearMonth, List<Path>> segments = segmentsByMonth();
+        Map<Long, ShiftResponse> rows = new HashMap<>();
+        Set<Long> employees = employeeIds == null || employeeIds.isEmpty() ? null : new HashSet<>(employeeIds);
+        
+        for (Map.Entry<YearMonth, List<Path>> month : segments.descendingMap().entrySet()) {
+            if (!month.getKey().plusMonths(1).atDay(1).atStartOfDay().isAfter(from)) {
+                break;
+            }
+            if (!month.getKey().atDay(1).atStartOfDay().isBefore(cursorClockIn)) {
+                continue;
+            }
+            for (Path segment : month.getValue()) {
+                readSegment(segment, from, cursorClockIn, cursorId, employees, limit, rows);
+            }
+            // Older months cannot contain anything newer than what is already collected
+            if (rows.size() >= limit) {
+                break;
+            }
+        }
+        List<ShiftResponse> page = new ArrayList<>(rows.values());
+        page.sort(NEWEST_FIRST);
+        return page.size() > limit ? new ArrayList<>(page.subList(0, limit)) : page;
+    }
+    
+    /**
+     * Start of the live table: every shift that clocked in earlier is in the
+     * archive (or was never recorded). Null while nothing has been archived.
+     */
+    public LocalDateTime liveFrom() {
+        NavigableMap<YearMonth, List<Path>> segments = segmentsByMonth();
+        return segments.isEmpty() ? null : segments.lastKey().plusMonths(1).atDay(1).atStartOfDay();
+    }
+    
+    private void readSegment(Path segment, LocalDateTime from, LocalDateTime cursorClockIn, long cursorId,
+                             Set<Long> employees, int limit, Map<Long, ShiftResponse> rows) {
+        int taken = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(segment), 64 * 1024), StandardCharsets.UTF_8))) {
+            reader.readLine();
+            String line;
+            while (taken < limit && (line = reader.readLine()) != null) {
+                String[] fields = line.split(",", 7);
+                LocalDateTime clockIn = LocalDateTime.parse(fields[3]);
+                long id = Long.parseLong(fields[0]);
+                if (clockIn.isBefore(from)) {
+                    return;
+                }
+                if (clockIn.isAfter(cursorClockIn) || clockIn.equals(cursorClockIn) && id >= cursorId) {
+                    continue;
+                }
+                Long employeeId = Long.parseLong(fields[1]);
+                Long locationId = Long.parseLong(fields[2]);
+                if (employees != null && !employees.contains(employeeId) || !LocationContext.canSee(locationId)) {
+                    continue;
+                }
+                rows.put(id, new ShiftResponse(id, employeeId, fields[6], clockIn, LocalDateTime.parse(fields[4]),
+                        Integer.parseInt(fields[5]), locationId));
+                taken++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read shift archive " + segment, e);
+        }
+    }
+    
+    private NavigableMap<YearMonth, List<Path>> segmentsByMonth() {
+        NavigableMap<YearMonth, List<Path>> segments = new TreeMap<>();
+        if (!Files.isDirectory(archiveDir)) {
+            return segments;
+        }
+        try (Stream<Path> files = Files.list(archiveDir)) {
+            files.forEach(file -> {
+                Matcher matcher = SEGMENT.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    segments.computeIfAbsent(YearMonth.parse(matcher.group(1), MONTH), m -> new ArrayList<>()).add(file);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return segments;
+    }
+}
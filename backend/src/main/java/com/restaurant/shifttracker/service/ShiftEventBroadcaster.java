@@ -0,0 +1,217 @@
+package com.restaurant.shifttracker.service;
+
+import com.restaurant.shifttracker.dto.ShiftResponse;
+import com.restaurant.shifttracker.event.ShiftEvent;
+import com.restaurant.shifttracker.util.LocationContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes committed clock-in/clock-out/adjust events to SSE subscribers. A subscriber
+ * is scoped to one employee or, for admins, to everyone at their location.
+ *
+ * Idle subscribers hold no thread: emitters are async servlet responses and
+ * each subscriber's pending events are written by a virtual thread, so a
+ * client that stops reading (slow network, suspended tab) parks only its own
+ * writer instead of a shared sender. Each subscriber has a bounded buffer, and
+ * a write still blocked after shift.events.send-timeout-ms drops the
+ * subscriber: neither a slow nor a stalled client can grow memory or delay
+ * the others, and on reconnect it receives a fresh snapshot.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ShiftEventBroadcaster {
+    
+    private final ShiftService shiftService;
+    
+    @Value("${shift.events.buffer-size:64}")
+    private int bufferSize;
+    
+    @Value("${shift.events.max-subscribers:20000}")
+    private int maxSubscribers;
+    
+    @Value("${shift.events.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+    
+    @Value("${shift.events.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+    
+    private final Map<Long, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final AtomicLong subscriberIds = new AtomicLong();
+    private ExecutorService senders;
+    
+    private record Subscriber(Long id, Long employeeId, Long locationId, SseEmitter emitter,
+                              BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> buffer,
+                              AtomicBoolean draining, AtomicLong sendingSince) {
+        
+        boolean wants(ShiftResponse shift) {
+            return (locationId == null || locationId.equals(shift.getLocationId()))
+                    && (employeeId == null || employeeId.equals(shift.getEmployeeId()));
+        }
+    }
+    
+    @PostConstruct
+    void start() {
+        senders = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("shift-events-", 0).factory());
+    }
+    
+    @PreDestroy
+    void stop() {
+        subscribers.values().forEach(subscriber -> subscriber.emitter().complete());
+        subscribers.clear();
+        senders.shutdownNow();
+    }
+    
+    /**
+     * Opens a stream for one employee, or for every employee at the caller's
+     * location when {@code employeeId} is null. The first event is a "snapshot" with the
+     * currently open shifts in scope.
+     */
+    public SseEmitter subscribe(Long employeeId) {
+        return subscribe(employeeId, new SseEmitter(emitterTimeoutMs));
+    }
+    
+    SseEmitter subscribe(Long employeeId, SseEmitter emitter) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many event subscribers");
+        }
+        
+        Subscriber subscriber = new Subscriber(subscriberIds.incrementAndGet(), employeeId, LocationContext.current(),
+                emitter, new ArrayBlockingQueue<>(bufferSize), new AtomicBoolean(), new AtomicLong());
+        subscriber.emitter().onCompletion(() -> subscribers.remove(subscriber.id()));
+        subscriber.emitter().onTimeout(() -> subscribers.remove(subscriber.id()));
+        subscriber.emitter().onError(e -> subscribers.remove(subscriber.id()));
+        subscribers.put(subscriber.id(), subscriber);
+        
+        List<ShiftResponse> snapshot = employeeId == null
+                ? shiftService.getActiveShifts()
+                : shiftService.getActiveShift(employeeId).map(List::of).orElse(List.of());
+        enqueue(subscriber, SseEmitter.event().name("snapshot").data(snapshot).build());
+        return subscriber.emitter();
+    }
+    
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onShiftEvent(ShiftEvent event) {
+        String name = switch (event.type()) {
+            case CLOCK_IN -> "clock-in";
+            case CLOCK_OUT -> "clock-out";
+            case ADJUST -> "adjust";
+            case FLAG -> "flag";
+            case ARCHIVE -> "archive";
+            case DELETE -> "delete";
+        };
+        for (Subscriber subscriber : subscribers.values()) {
+            if (subscriber.wants(event.shift())) {
+                // Built per subscriber: an event builder cannot be rendered twice
+                enqueue(subscriber, SseEmitter.event().name(name).data(event.shift()).build());
+            }
+        }
+    }
+    
+    /**
+     * Keeps idle connections open through proxies and detects dead clients.
+     */
+    @Scheduled(fixedDelayString = "${shift.events.heartbeat-ms:25000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers.values()) {
+            enqueue(subscriber, SseEmitter.event().comment("keep-alive").build());
+        }
+    }
+    
+    /**
+     * Drops subscribers whose current write has been blocked for longer than
+     * the send timeout.
+     */
+    @Scheduled(fixedDelayString = "${shift.events.send-timeout-ms:10000}")
+    public void dropStalledSubscribers() {
+        dropStalledSubscribers(TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs));
+    }
+    
+    void dropStalledSubscribers(long timeoutNanos) {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers.values()) {
+            long since = subscriber.sendingSince().get();
+            if (since != 0 && now - since >= timeoutNanos) {
+                log.debug("Event subscriber {} stopped reading, disconnecting", subscriber.id());
+                disconnect(subscriber);
+            }
+        }
+    }
+    
+    private void enqueue(Subscriber subscriber, Set<ResponseBodyEmitter.DataWithMediaType> event) {
+        if (!subscriber.buffer().offer(event)) {
+            log.debug("Event subscriber {} fell {} events behind, disconnecting", subscriber.id(), bufferSize);
+            disconnect(subscriber);
+            return;
+        }
+        if (subscriber.draining().compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.draining().set(false);
+            }
+        }
+    }
+    
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            Set<ResponseBodyEmitter.DataWithMediaType> event = subscriber.buffer().poll();
+            if (event == null) {
+                subscriber.draining().set(false);
+                // An event may have been queued after the poll but before the flag was cleared
+                if (subscriber.buffer().isEmpty() || !subscriber.draining().compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            subscriber.sendingSince().set(System.nanoTime());
+            try {
+                subscriber.emitter().send(event);
+            } catch (Exception e) {
+                disconnect(subscriber);
+                return;
+            } finally {
+                subscriber.sendingSince().set(0);
+            }
+            if (!subscribers.containsKey(subscriber.id())) {
+                // Dropped while the write was blocked
+                return;
+            }
+        }
+    }
+    
+    // Completing waits for a write in progress, so it is left to a sender
+    // thread rather than done on the caller's (an event listener or the watchdog)
+    private void disconnect(Subscriber subscriber) {
+        if (subscribers.remove(subscriber.id()) != null) {
+            subscriber.buffer().clear();
+            try {
+                senders.execute(() -> subscriber.emitter().complete());
+            } catch (RejectedExecutionException e) {
+                subscriber.emitter().complete();
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.restaurant.shifttracker.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.restaurant.shifttracker.entity.Employee;
+import com.restaurant.shifttracker.entity.Shift;
+import com.restaurant.shifttracker.repository.ShiftRepository;
+import com.restaurant.shifttracker.util.Hours;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes payroll exports straight from a database cursor. Rows arrive ordered
+ * by employee, so per-employee totals are emitted when the employee changes and
+ * nothing but the current employee's running total is kept in memory.
+ *
+ * Only the live shifts table is exported. A range that starts before it would
+ * silently lose the archived shifts, so it is rejected instead.
+ */
+@Service
+@RequiredArgsConstructor
+public class ShiftExportService {
+    
+    private final ShiftRepository shiftRepository;
+    private final ShiftArchiveService shiftArchiveService;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    
+    public enum Format {
+        CSV, NDJSON
+    }
+    
+    /**
+     * Rejects a range that reaches into archived months. Callers streaming the
+     * export check first, while an error can still become a 400.
+     */
+    public void checkRange(LocalDateTime from) {
+        LocalDateTime liveFrom = shiftArchiveService.liveFrom();
+        if (liveFrom != null && from.isBefore(liveFrom)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Shifts before " + liveFrom.toLocalDate() + " are archived and cannot be exported");
+        }
+    }
+    
+    @Transactional(readOnly = true)
+    public void exportShifts(LocalDateTime from, LocalDateTime to, Format format, OutputStream out) throws IOException {
+        checkRange(from);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        RowWriter rows = format == Format.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+        
+        try (Stream<Shift> stream = shiftRepository.streamShiftsForExport(from, to)) {
+            Iterator<Shift> iterator = stream.iterator();
+            Employee current = null;
+            long totalMinutes = 0;
+            int shiftCount = 0;
+            
+            while (iterator.hasNext()) {
+                Shift shift = iterator.next();
+                Employee employee = shift.getEmployee();
+                
+                if (current != null && !current.getId().equals(employee.getId())) {
+                    rows.writeTotal(current, totalMinutes, shiftCount);
+                    entityManager.detach(current);
+                    totalMinutes = 0;
+                    shiftCount = 0;
+                }
+                current = employee;
+                
+                rows.writeShift(shift);
+                if (shift.getTotalMinutes() != null) {
+                    totalMinutes += shift.getTotalMinutes();
+                }
+                shiftCount++;
+                entityManager.detach(shift);
+            }
+            
+            if (current != null) {
+                rows.writeTotal(current, totalMinutes, shiftCount);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        rows.finish();
+    }
+    
+    private interface RowWriter {
+        void writeShift(Shift shift);
+        
+        void writeTotal(Employee employee, long totalMinutes, int shiftCount);
+        
+        void finish() throws IOException;
+    }
+    
+    private static class CsvRowWriter implements RowWriter {
+        
+        private final Writer writer;
+        
+        CsvRowWriter(Writer writer) {
+            this.writer = writer;
+            write("record_type,employee_id,employee_name,shift_id,clock_in,clock_out,total_hours,shift_count\n");
+        }
+        
+        @Override
+        public void writeShift(Shift shift) {
+            Employee employee = shift.getEmployee();
+            write("SHIFT," + employee.getId() + "," + escape(employee.getName()) + "," + shift.getId() + ","
+                    + value(shift.getClockIn()) + "," + value(shift.getClockOut()) + ","
+                    + value(Hours.fromMinutes(shift.getTotalMinutes())) + ",\n");
+        }
+        
+        @Override
+        public void writeTotal(Employee employee, long totalMinutes, int shiftCount) {
+            write("TOTAL," + employee.getId() + "," + escape(employee.getName()) + ",,,,"
+                    + Hours.fromMinutes(totalMinutes).toPlainString() + "," + shiftCount + "\n");
+        }
+        
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+        
+        private void write(String line) {
+            try {
+                writer.write(line);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        
+        private static String value(Object value) {
+            return value == null ? "" : value instanceof BigDecimal b ? b.toPlainString() : value.toString();
+        }
+        
+        /**
+         * Quotes a text cell. A cell a spreadsheet would read as a formula gets a
+         * leading apostrophe so it opens as text.
+         */
+        private static String escape(String value) {
+            if (value == null) {
+                return "";
+            }
+            if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+                value = "'" + value;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                    && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+    
+    private class NdjsonRowWriter implements RowWriter {
+        
+        private final JsonGenerator generator;
+        
+        NdjsonRowWriter(Writer writer) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(writer);
+            this.generator.setRootValueSeparator(null);
+        }
+        
+        @Override
+        public void writeShift(Shift shift) {
+            try {
+                generator.writeStartObject();
+                generator.writeStringField("type", "shift");
+                generator.writeNumberField("employeeId", shift.getEmployee().getId());
+                generator.writeStringField("employeeName", shift.getEmployee().getName());
+                generator.writeNumberField("shiftId", shift.getId());
+                generator.writeStringField("clockIn", shift.getClockIn().toString());
+                generator.writeStringField("clockOut", shift.getClockOut() == null ? null : shift.getClockOut().toString());
+                if (shift.getTotalMinutes() == null) {
+                    generator.writeNullField("totalHours");
+                } else {
+                    generator.writeNumberField("totalHours", Hours.fromMinutes(shift.getTotalMinutes()));
+                }
+                endLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        
+        @Override
+        public void writeTotal(Employee employee, long totalMinutes, int shiftCount) {
+            try {
+                generator.writeStartObject();
+                generator.writeStringField("type", "total");
+                generator.writeNumberField("employeeId", employee.getId());
+                generator.writeStringField("employeeName", employee.getName());
+                generator.writeNumberField("totalHours", Hours.fromMinutes(totalMinutes));
+                generator.writeNumberField("shiftCount", shiftCount);
+                endLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+        
+        private void endLine() throws IOException {
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.restaurant.shifttracker.service;
+
+import com.restaurant.shifttracker.event.ShiftEvent;
+import com.restaurant.shifttracker.dto.ShiftResponse;
+import com.restaurant.shifttracker.util.JwtPrincipal;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Appends every {@link ShiftEvent} to the shift_events journal. Events are
+ * collected per transaction and written as one JDBC batch just before it
+ * commits, so a batched pipeline write costs one round trip and the journal
+ * commits or rolls back together with the rows it describes.
+ *
+ * Nothing is ever removed from the journal. Shifts that leave the shifts
+ * table get a final ARCHIVE or DELETE event instead (see
+ * {@link #appendFinalEvents}).
+ */
+@Service
+@RequiredArgsConstructor
+public class ShiftJournal {
+    
+    private static final String INSERT = "INSERT INTO shift_events "
+            + "(event_type, shift_id, employee_id, location_id, clock_in, clock_out, total_minutes, anomaly, "
+            + "recorded_at, recorded_by) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @EventListener
+    public void onShiftEvent(ShiftEvent event) {
+        Object[] row = row(event);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            jdbcTemplate.update(INSERT, row);
+            return;
+        }
+        
+        @SuppressWarnings("unchecked")
+        List<Object[]> pending = (List<Object[]>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<Object[]> rows = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, rows);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    jdbcTemplate.batchUpdate(INSERT, rows);
+                }
+                
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ShiftJournal.this);
+                }
+            });
+            pending = rows;
+        }
+        pending.add(row);
+    }
+    
+    /**
+     * Appends a {@code type} event holding the current row of every shift
+     * matching {@code where}, in one statement. Call it before those rows are
+     * deleted or moved to the archive, in the same transaction.
+     */
+    public int appendFinalEvents(ShiftEvent.Type type, String where, Object... args) {
+        JwtPrincipal principal = JwtPrincipal.current();
+        Object[] params = new Object[args.length + 3];
+        params[0] = type.name();
+        params[1] = Timestamp.valueOf(LocalDateTime.now());
+        params[2] = principal == null ? null : principal.userId();
+        System.arraycopy(args, 0, params, 3, args.length);
+        return jdbcTemplate.update("INSERT INTO shift_events "
+                + "(event_type, shift_id, employee_id, location_id, clock_in, clock_out, total_minutes, anomaly, "
+                + "recorded_at, recorded_by) "
+                + "SELECT ?, id, employee_id, location_id, clock_in, clock_out, total_minutes, anomaly, ?, ? "
+                + "FROM shifts WHERE " + where, params);
+    }
+    
+    private static Object[] row(ShiftEvent event) {
+        ShiftResponse shift = event.shift();
+        JwtPrincipal principal = JwtPrincipal.current();
+        return new Object[] {
+                event.type().name(),
+                shift.getId(),
+                shift.getEmployeeId(),
+                shift.getLocationId(),
+                Timestamp.valueOf(shift.getClockIn()),
+                shift.getClockOut() == null ? null : Timestamp.valueOf(shift.getClockOut()),
+                shift.getTotalMinutes(),
+                event.anomaly() == null ? null : event.anomaly().name(),
+                Timestamp.valueOf(LocalDateTime.now()),
+                principal == null ? null : principal.userId()
+        };
+    }
+}
@@ -0,0 +1,280 @@
+package com.restaurant.shifttracker.service;
+
+import com.restaurant.shifttracker.entity.ShiftJournalCheckpoint;
+import com.restaurant.shifttracker.event.ShiftEvent;
+import com.restaurant.shifttracker.repository.ShiftJournalCheckpointRepository;
+import com.restaurant.shifttracker.util.LocationContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Rebuilds the shifts table and the weekly summary from the shift_events
+ * journal. Writes still go to those tables directly, with the journal row
+ * added in the same transaction, so they normally agree and a replay only has
+ * to cover events after the last checkpoint: at startup that is whatever a
+ * crash or a manual repair may have left behind. The journal is that one
+ * table; there are no separate segment files.
+ *
+ * Events are folded to the final state of each shift, then employees are
+ * split into buckets that are applied in parallel, one transaction per bucket.
+ * An update is skipped if a newer event for the shift was appended meanwhile,
+ * so a replay never overwrites a live write, and a shift the journal leaves
+ * open is not inserted while its employee already has another open row. A
+ * shift whose last event is ARCHIVE or DELETE was moved to the archive or
+ * deleted with its employee, and is left alone. Anomalies are sticky: a shift
+ * keeps the last one any of its events marked.
+ *
+ * The journal spans every location, so only the system scope may replay it.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ShiftJournalReplayService implements SmartInitializingSingleton {
+    
+    static final String CHECKPOINT = "projections";
+    private static final int IN_CHUNK = 1000;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShiftJournalCheckpointRepository checkpointRepository;
+    private final WeeklyHoursSummaryService weeklyHoursSummaryService;
+    private final ChangeCounters changeCounters;
+    
+    @Value("${shift.journal.replay-on-startup:true}")
+    private boolean replayOnStartup;
+    
+    @Value("${shift.journal.replay-threads:4}")
+    private int replayThreads;
+    
+    // Appends can commit out of id order; events younger than this are left
+    // after the checkpoint so a slow transaction is never skipped over
+    @Value("${shift.journal.checkpoint-delay-ms:60000}")
+    private long checkpointDelayMs;
+    
+    public record ReplayResult(int events, int shifts, long lastEventId) {
+    }
+    
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!replayOnStartup) {
+            return;
+        }
+        long checkpoint = currentCheckpoint();
+        try {
+            ReplayResult result = replay(checkpoint);
+            log.info("Replayed {} shift event(s) after checkpoint {} into {} shift(s)",
+                    result.events(), checkpoint, result.shifts());
+        } catch (RuntimeException e) {
+            // shifts and the summary are still what the last run committed; serve those
+            log.error("Replaying shift events after checkpoint {} failed; starting without it", checkpoint, e);
+        }
+    }
+    
+    public long currentCheckpoint() {
+        return checkpointRepository.findById(CHECKPOINT)
+                .map(ShiftJournalCheckpoint::getLastEventId)
+                .orElse(0L);
+    }
+    
+    @Scheduled(fixedDelayString = "${shift.journal.checkpoint-interval-ms:300000}",
+               initialDelayString = "${shift.journal.checkpoint-interval-ms:300000}")
+    public void advanceCheckpoint() {
+        Long last = jdbcTemplate.queryForObject("SELECT MAX(id) FROM shift_events WHERE recorded_at < ?",
+                Long.class, Timestamp.valueOf(LocalDateTime.now().minusNanos(checkpointDelayMs * 1_000_000)));
+        if (last != null && last > currentCheckpoint()) {
+            checkpointRepository.save(new ShiftJournalCheckpoint(CHECKPOINT, last, LocalDateTime.now()));
+        }
+    }
+    
+    /**
+     * Applies every event with an id above {@code afterEventId}; 0 rebuilds
+     * everything the journal still holds.
+     */
+    public ReplayResult replay(long afterEventId) {
+        if (LocationContext.current() != null) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Journal replay spans every location");
+        }
+        Map<Long, Map<Long, ShiftState>> byEmployee = new HashMap<>();
+        long[] totals = {0, afterEventId};
+        jdbcTemplate.query("SELECT id, event_type, shift_id, employee_id, location_id, clock_in, clock_out, "
+                + "total_minutes, anomaly FROM shift_events WHERE id > ? ORDER BY id", rs -> {
+            ShiftState state = byEmployee.computeIfAbsent(rs.getLong("employee_id"), id -> new LinkedHashMap<>())
+                    .computeIfAbsent(rs.getLong("shift_id"), id -> new ShiftState());
+            state.apply(rs);
+            totals[0]++;
+            totals[1] = state.lastEventId;
+        }, afterEventId);
+        if (byEmployee.isEmpty()) {
+            return new ReplayResult(0, 0, afterEventId);
+        }
+        
+        int threads = Math.max(1, Math.min(replayThreads, byEmployee.size()));
+        List<List<Long>> buckets = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        for (Long employeeId : byEmployee.keySet()) {
+            buckets.get(Math.floorMod(employeeId, threads)).add(employeeId);
+        }
+        
+        int shifts = 0;
+        try (ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "journal-replay");
+            thread.setDaemon(true);
+            return thread;
+        })) {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (List<Long> bucket : buckets) {
+                results.add(pool.submit(() -> transactionTemplate.execute(status -> applyBucket(bucket, byEmployee))));
+            }
+            for (Future<Integer> result : results) {
+                shifts += result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Journal replay interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Journal replay failed", e.getCause());
+        }
+        changeCounters.bump(LocationContext.SYSTEM, ChangeCounters.Scope.SHIFTS);
+        return new ReplayResult((int) totals[0], shifts, totals[1]);
+    }
+    
+    private int applyBucket(List<Long> employeeIds, Map<Long, Map<Long, ShiftState>> byEmployee) {
+        Map<Long, ShiftState> states = new HashMap<>();
+        for (Long employeeId : employeeIds) {
+            byEmployee.get(employeeId).forEach((shiftId, state) -> {
+                if (!state.removed) {
+                    states.put(shiftId, state);
+                }
+            });
+        }
+        Set<Long> existing = existingShiftIds(states.keySet());
+        Set<Long> stillOpen = employeesWithOpenShift(employeeIds, states);
+        
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (Map.Entry<Long, ShiftState> entry : states.entrySet()) {
+            ShiftState state = entry.getValue();
+            if (existing.contains(entry.getKey())) {
+                updates.add(new Object[] {state.clockIn, state.clockOut, state.totalMinutes, state.anomaly, now,
+                        entry.getKey(), entry.getKey(), state.lastEventId});
+            } else if (state.clockOut == null && !stillOpen.add(state.employeeId)) {
+                log.warn("Not restoring open shift {}: employee {} already has an open shift",
+                        entry.getKey(), state.employeeId);
+            } else {
+                inserts.add(new Object[] {entry.getKey(), state.employeeId, state.locationId, state.clockIn,
+                        state.clockOut, state.totalMinutes, state.anomaly, now, now});
+            }
+        }
+        jdbcTemplate.batchUpdate("UPDATE shifts SET clock_in = ?, clock_out = ?, total_minutes = ?, "
+                + "anomaly = COALESCE(?, anomaly), updated_at = ? WHERE id = ? AND NOT EXISTS (SELECT 1 FROM shift_events WHERE shift_id = ? AND id > ?)", updates);
+        jdbcTemplate.batchUpdate("INSERT INTO shifts "
+                + "(id, employee_id, location_id, clock_in, clock_out, total_minutes, anomaly, created_at, updated_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", inserts);
+        
+        for (Long employeeId : employeeIds) {
+            Set<LocalDate> weeks = new HashSet<>();
+            for (ShiftState state : byEmployee.get(employeeId).values()) {
+                if (!state.removed) {
+                    weeks.addAll(state.weeks);
+                }
+            }
+            for (LocalDate monday : weeks) {
+                weeklyHoursSummaryService.recomputeWeek(employeeId, monday);
+            }
+        }
+        return updates.size() + inserts.size();
+    }
+    
+    /**
+     * Employees of the bucket that will still have an open row once the
+     * updates are applied, i.e. one the replay does not close.
+     */
+    private Set<Long> employeesWithOpenShift(List<Long> employeeIds, Map<Long, ShiftState> states) {
+        Set<Long> open = new HashSet<>();
+        for (int from = 0; from < employeeIds.size(); from += IN_CHUNK) {
+            List<Long> chunk = employeeIds.subList(from, Math.min(from + IN_CHUNK, employeeIds.size()));
+            jdbcTemplate.query("SELECT id, employee_id FROM shifts WHERE clock_out IS NULL AND employee_id IN ("
+                    + chunk.stream().map(String::valueOf).collect(Collectors.joining(",")) + ")", rs -> {
+                ShiftState state = states.get(rs.getLong("id"));
+                if (state == null || state.clockOut == null) {
+                    open.add(rs.getLong("employee_id"));
+                }
+            });
+        }
+        return open;
+    }
+    
+    private Set<Long> existingShiftIds(Set<Long> shiftIds) {
+        Set<Long> existing = new HashSet<>();
+        List<Long> ids = new ArrayList<>(shiftIds);
+        for (int from = 0; from < ids.size(); from += IN_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(from + IN_CHUNK, ids.size()));
+            existing.addAll(jdbcTemplate.queryForList("SELECT id FROM shifts WHERE id IN ("
+                    + chunk.stream().map(String::valueOf).collect(Collectors.joining(",")) + ")", Long.class));
+        }
+        return existing;
+    }
+    
+    /**
+     * Final state of one shift, plus every week any of its events touched so
+     * that a shift moved to another week is subtracted from the old one.
+     */
+    private static final class ShiftState {
+        
+        long lastEventId;
+        boolean removed;
+        long employeeId;
+        long locationId;
+        Timestamp clockIn;
+        Timestamp clockOut;
+        Integer totalMinutes;
+        String anomaly;
+        final Set<LocalDate> weeks = new HashSet<>();
+        
+        void apply(ResultSet rs) throws SQLException {
+            lastEventId = rs.getLong("id");
+            String type = rs.getString("event_type");
+            removed = ShiftEvent.Type.ARCHIVE.name().equals(type) || ShiftEvent.Type.DELETE.name().equals(type);
+            employeeId = rs.getLong("employee_id");
+            locationId = rs.getLong("location_id");
+            clockIn = rs.getTimestamp("clock_in");
+            clockOut = rs.getTimestamp("clock_out");
+            int minutes = rs.getInt("total_minutes");
+            totalMinutes = rs.wasNull() ? null : minutes;
+            if (rs.getString("anomaly") != null) {
+                anomaly = rs.getString("anomaly");
+            }
+            weeks.add(clockIn.toLocalDateTime().toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)));
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.restaurant.shifttracker.service;
+
+import com.restaurant.shifttracker.event.ShiftEvent;
+import com.restaurant.shifttracker.util.LocationContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the shifts table bounded.
+ *
+ * With shift.partitioning.enabled (MySQL, table converted as described in
+ * database/schema.sql) the table is RANGE-partitioned by archive_month: one
+ * partition per month of closed shifts, p_open for open shifts and p_future
+ * as a catch-all. Monthly partitions are created shift.partitioning.months-ahead
+ * in advance by splitting p_future, which is empty when this runs in time.
+ *
+ * With shift.archive.retention-months > 0, closed shifts older than that are
+ * copied to the {@link ShiftArchiveService} archive and then removed: by
+ * dropping the month's partition when partitioned, otherwise by deleting the
+ * archived ids in small batches. Their journal stays: each archived shift gets
+ * a final ARCHIVE event, which also keeps a journal replay from restoring it.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ShiftPartitionMaintenance {
+    
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final int DELETE_BATCH_SIZE = 1000;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final ShiftArchiveService archiveService;
+    private final ShiftJournal shiftJournal;
+    private final ChangeCounters changeCounters;
+    
+    @Value("${shift.partitioning.enabled:false}")
+    private boolean partitioningEnabled;
+    
+    @Value("${shift.partitioning.months-ahead:3}")
+    private int monthsAhead;
+    
+    @Value("${shift.archive.retention-months:0}")
+    private int retentionMonths;
+    
+    @Scheduled(cron = "${shift.partitioning.cron:0 45 3 * * *}")
+    public void maintain() {
+        YearMonth current = YearMonth.now();
+        if (partitioningEnabled) {
+            createFuturePartitions(current);
+        }
+        if (retentionMonths > 0) {
+            archiveBefore(current.minusMonths(retentionMonths));
+        }
+    }
+    
+    public int createFuturePartitions(YearMonth current) {
+        List<YearMonth> existing = partitionMonths();
+        if (existing == null) {
+            log.warn("shift.partitioning.enabled is set but the shifts table is not partitioned; skipping");
+            return 0;
+        }
+        List<YearMonth> missing = monthsToAdd(existing, current, monthsAhead);
+        if (!missing.isEmpty()) {
+            jdbcTemplate.execute(reorganizeSql(missing));
+            log.info("Created shift partitions {}", missing);
+        }
+        return missing.size();
+    }
+    
+    /**
+     * Archives and removes every closed shift that clocked in before
+     * {@code firstRetainedMonth}. Returns the number of shifts archived.
+     */
+    public long archiveBefore(YearMonth firstRetainedMonth) {
+        List<YearMonth> partitions = partitioningEnabled ? partitionMonths() : null;
+        List<YearMonth> months = partitions != null
+                ? partitions.stream().filter(m -> m.isBefore(firstRetainedMonth)).toList()
+                : unpartitionedMonthsBefore(firstRetainedMonth);
+        
+        long archived = 0;
+        for (YearMonth month : months) {
+            ShiftArchiveService.ArchivedMonth result;
+            try {
+                result = archiveService.archiveMonth(month);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Archiving shifts for " + month + " failed", e);
+            }
+            
+            if (partitions != null) {
+                // Drop only if the archive holds every row of the partition
+                Long rows = jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM shifts PARTITION (" + partitionName(month) + ")", Long.class);
+                if (rows == null || rows != result.shiftIds().length) {
+                    log.warn("Partition {} changed while archiving ({} rows, {} archived); keeping it",
+                            partitionName(month), rows, result.shiftIds().length);
+                    deleteSegment(result);
+                    continue;
+                }
+                journalArchived(result.shiftIds(), false);
+                jdbcTemplate.execute("ALTER TABLE shifts DROP PARTITION " + partitionName(month));
+            } else {
+                journalArchived(result.shiftIds(), true);
+            }
+            archived += result.shiftIds().length;
+        }
+        if (archived > 0) {
+            changeCounters.bump(LocationContext.SYSTEM, ChangeCounters.Scope.SHIFTS);
+        }
+        return archived;
+    }
+    
+    private void deleteSegment(ShiftArchiveService.ArchivedMonth result) {
+        try {
+            if (result.segment() != null) {
+                Files.deleteIfExists(result.segment());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    // Appends the ARCHIVE events before the rows go, so a crash in between only repeats one
+    private void journalArchived(long[] ids, boolean delete) {
+        for (int from = 0; from < ids.length; from += DELETE_BATCH_SIZE) {
+            long[] batch = Arrays.copyOfRange(ids, from, Math.min(ids.length, from + DELETE_BATCH_SIZE));
+            String idList = Arrays.stream(batch).mapToObj(Long::toString).collect(Collectors.joining(","));
+            shiftJournal.appendFinalEvents(ShiftEvent.Type.ARCHIVE, "id IN (" + idList + ")");
+            if (delete) {
+                jdbcTemplate.update("DELETE FROM shifts WHERE id IN (" + idList + ")");
+            }
+        }
+    }
+    
+    private List<YearMonth> unpartitionedMonthsBefore(YearMonth firstRetainedMonth) {
+        Timestamp oldest = jdbcTemplate.queryForObject(
+                "SELECT MIN(clock_in) FROM shifts WHERE clock_out IS NOT NULL AND clock_in < ?",
+                Timestamp.class, Timestamp.valueOf(firstRetainedMonth.atDay(1).atStartOfDay()));
+        List<YearMonth> months = new ArrayList<>();
+        if (oldest != null) {
+            for (YearMonth m = YearMonth.from(oldest.toLocalDateTime()); m.isBefore(firstRetainedMonth); m = m.plusMonths(1)) {
+                months.add(m);
+            }
+        }
+        return months;
+    }
+    
+    /**
+     * Months that have a partition, oldest first, or null if the table is not
+     * partitioned.
+     */
+    private List<YearMonth> partitionMonths() {
+        List<String> names = jdbcTemplate.queryForList(
+                "SELECT PARTITION_NAME FROM information_schema.PARTITIONS "
+                        + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'shifts' AND PARTITION_NAME IS NOT NULL",
+                String.class);
+        if (names.isEmpty()) {
+            return null;
+        }
+        return names.stream()
+                .filter(name -> name.matches("p\\d{6}"))
+                .map(name -> YearMonth.parse(name.substring(1), MONTH))
+                .sorted()
+                .toList();
+    }
+    
+    /**
+     * Months from {@code current} to {@code current + monthsAhead} that still
+     * need a partition. Partitions can only be split off p_future, so months
+     * at or before the newest existing one are never added.
+     */
+    static List<YearMonth> monthsToAdd(Collection<YearMonth> existing, YearMonth current, int monthsAhead) {
+        YearMonth newest = existing.isEmpty() ? null : new TreeSet<>(existing).last();
+        List<YearMonth> missing = new ArrayList<>();
+        for (YearMonth m = current; !m.isAfter(current.plusMonths(monthsAhead)); m = m.plusMonths(1)) {
+            if (newest == null || m.isAfter(newest)) {
+                missing.add(m);
+            }
+        }
+        return missing;
+    }
+    
+    static String reorganizeSql(List<YearMonth> months) {
+        StringBuilder sql = new StringBuilder("ALTER TABLE shifts REORGANIZE PARTITION p_future INTO (");
+        for (YearMonth month : months) {
+            sql.append("PARTITION ").append(partitionName(month))
+                    .append(" VALUES LESS THAN (").append(month.plusMonths(1).format(MONTH)).append("), ");
+        }
+        return sql.append("PARTITION p_future VALUES LESS THAN MAXVALUE)").toString();
+    }
+    
+    static String partitionName(YearMonth month) {
+        return "p" + month.format(MONTH);
+    }
+}
@@ -1,16 +1,30 @@
 package com.restaurant.shifttracker.service;
 
+import com.restaurant.shifttracker.dto.EmployeeSnapshot;
+import com.restaurant.shifttracker.dto.ShiftHistoryResponse;
+import com.restaurant.shifttracker.dto.ShiftJournalEntryResponse;
 import com.restaurant.shifttracker.dto.ShiftResponse;
 import com.restaurant.shifttracker.dto.WeeklyHoursResponse;
 import com.restaurant.shifttracker.entity.Employee;
 import com.restaurant.shifttracker.entity.Shift;
+import com.restaurant.shifttracker.event.ShiftEvent;
 import com.restaurant.shifttracker.repository.EmployeeRepository;
+import com.restaurant.shifttracker.repository.ShiftJournalRepository;
 import com.restaurant.shifttracker.repository.ShiftRepository;
+import com.restaurant.shifttracker.util.LocationContext;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import java.nio.charset.StandardCharsets;
 import java.time.DayOfWeek;
 import java.time.Duration;
 import java.time.LocalDateTime;
@@ -18,118 +32,335 @@ import java.time.temporal.TemporalAdjusters;
 import java.util.*;
 import java.util.stream.Collectors;
 
+@Observed(name = "service.method")
 @Service
 @RequiredArgsConstructor
 public class ShiftService {
     
+    private static final int MAX_HISTORY_PAGE_SIZE = 1000;
+    private static final String OPEN_SHIFT_CONSTRAINT = "uk_shift_open";
+    
     private final ShiftRepository shiftRepository;
     private final EmployeeRepository employeeRepository;
+    private final WeeklyHoursSummaryService weeklyHoursSummaryService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectProvider<ShiftWritePipeline> writePipeline;
+    private final ActiveShiftRegistry activeShiftRegistry;
+    private final EmployeeLookupService employeeLookupService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ShiftArchiveService shiftArchiveService;
+    private final ShiftJournalRepository shiftJournalRepository;
     
-    @Transactional
+    /**
+     * Clock-in and clock-out run in their own transaction, or are handed to the
+     * batched {@link ShiftWritePipeline} when it is enabled. Callers never hold
+     * a transaction (and with it a connection) while queued for a batch.
+     */
     public ShiftResponse clockIn(Long employeeId) {
-        Employee employee = employeeRepository.findById(employeeId)
-                .orElseThrow(() -> new RuntimeException("Employee not found"));
-        
-        Optional<Shift> activeShift = shiftRepository.findActiveShiftByEmployeeId(employeeId);
-        if (activeShift.isPresent()) {
-            throw new RuntimeException("Already clocked in");
+        ShiftWritePipeline pipeline = writePipeline.getIfAvailable();
+        if (pipeline != null) {
+            return pipeline.clockIn(employeeId);
+        }
+        return transactionTemplate.execute(status -> doClockIn(employeeId));
+    }
+    
+    public ShiftResponse clockOut(Long employeeId) {
+        ShiftWritePipeline pipeline = writePipeline.getIfAvailable();
+        if (pipeline != null) {
+            return pipeline.clockOut(employeeId);
         }
+        return transactionTemplate.execute(status -> doClockOut(employeeId));
+    }
+    
+    /**
+     * Single insert, no pre-read: the employee comes from the lookup cache and
+     * is attached by reference, and uk_shift_open rejects a second open shift
+     * for the same employee, which becomes "Already clocked in".
+     */
+    private ShiftResponse doClockIn(Long employeeId) {
+        EmployeeSnapshot employee = employeeLookupService.findById(employeeId)
+                .orElseThrow(() -> new RuntimeException("Employee not found"));
         
         Shift shift = Shift.builder()
-                .employee(employee)
+                .employee(employeeRepository.getReferenceById(employeeId))
+                .locationId(employee.locationId())
                 .clockIn(LocalDateTime.now())
                 .build();
         
-        shift = shiftRepository.save(shift);
-        return mapToResponse(shift);
+        try {
+            shift = shiftRepository.saveAndFlush(shift);
+        } catch (DataIntegrityViolationException e) {
+            if (isOpenShiftConflict(e)) {
+                throw new RuntimeException("Already clocked in");
+            }
+            throw e;
+        }
+        // Built from the snapshot so the employee proxy is never initialised
+        ShiftResponse response = ShiftResponse.builder()
+                .id(shift.getId())
+                .employeeId(employee.id())
+                .employeeName(employee.name())
+                .clockIn(shift.getClockIn())
+                .locationId(employee.locationId())
+                .build();
+        eventPublisher.publishEvent(new ShiftEvent(ShiftEvent.Type.CLOCK_IN, response));
+        return response;
     }
     
-    @Transactional
-    public ShiftResponse clockOut(Long employeeId) {
+    static boolean isOpenShiftConflict(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                    && violation.getConstraintName().toLowerCase().contains(OPEN_SHIFT_CONSTRAINT)) {
+                return true;
+            }
+            if (cause.getMessage() != null && cause.getMessage().toLowerCase().contains(OPEN_SHIFT_CONSTRAINT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private ShiftResponse doClockOut(Long employeeId) {
         Shift shift = shiftRepository.findActiveShiftByEmployeeId(employeeId)
                 .orElseThrow(() -> new RuntimeException("No active shift found"));
         
-        LocalDateTime clockOut = LocalDateTime.now();
+        int minutes = close(shift, LocalDateTime.now());
+        
+        shift = shiftRepository.save(shift);
+        weeklyHoursSummaryService.recordClosedShift(employeeId, shift.getClockIn(), minutes);
+        ShiftResponse response = mapToResponse(shift);
+        eventPublisher.publishEvent(new ShiftEvent(ShiftEvent.Type.CLOCK_OUT, response));
+        return response;
+    }
+    
+    static int close(Shift shift, LocalDateTime clockOut) {
         shift.setClockOut(clockOut);
         
-        Duration duration = Duration.between(shift.getClockIn(), clockOut);
-        BigDecimal hours = BigDecimal.valueOf(duration.toMinutes())
-                .divide(BigDecimal.valueOf(60), 2, RoundingMode.HALF_UP);
-        shift.setTotalHours(hours);
+        int minutes = (int) Duration.between(shift.getClockIn(), clockOut).toMinutes();
+        shift.setTotalMinutes(minutes);
+        return minutes;
+    }
+    
+    /**
+     * Corrects a shift's times. Applied as a compare-and-set against the times
+     * just read rather than under a row lock; a concurrent clock-out or
+     * correction in between makes this one fail with 409 instead of being
+     * overwritten. The ADJUST event records the corrected state in the journal.
+     */
+    @Transactional
+    public ShiftResponse adjustShift(Long shiftId, LocalDateTime clockIn, LocalDateTime clockOut) {
+        Shift shift = shiftRepository.findById(shiftId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Shift not found"));
         
-        shift = shiftRepository.save(shift);
-        return mapToResponse(shift);
+        LocalDateTime now = LocalDateTime.now();
+        if (clockOut == null && shift.getClockOut() != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A closed shift cannot be reopened");
+        }
+        if (clockOut != null && !clockOut.isAfter(clockIn)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Clock-out must be after clock-in");
+        }
+        if (clockIn.isAfter(now) || clockOut != null && clockOut.isAfter(now)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Shift times cannot be in the future");
+        }
+        
+        Integer minutes = clockOut == null ? null : (int) Duration.between(clockIn, clockOut).toMinutes();
+        LocalDateTime expectedEnd = shift.getClockOut() != null ? shift.getClockOut() : shift.getClockIn();
+        if (shiftRepository.adjustTimes(shiftId, shift.getClockIn(), expectedEnd, clockIn, clockOut, minutes, now) == 0) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Shift was changed concurrently");
+        }
+        
+        Long employeeId = shift.getEmployee().getId();
+        weeklyHoursSummaryService.recomputeWeek(employeeId, shift.getClockIn().toLocalDate());
+        if (WeeklyHoursSummaryService.isoWeekOf(clockIn.toLocalDate())
+                != WeeklyHoursSummaryService.isoWeekOf(shift.getClockIn().toLocalDate())) {
+            weeklyHoursSummaryService.recomputeWeek(employeeId, clockIn.toLocalDate());
+        }
+        
+        // The managed entity still holds the old times; it is not dirty, so it is never written back
+        ShiftResponse response = ShiftResponse.builder()
+                .id(shiftId)
+                .employeeId(employeeId)
+                .employeeName(shift.getEmployee().getName())
+                .clockIn(clockIn)
+                .clockOut(clockOut)
+                .totalMinutes(minutes)
+                .locationId(shift.getLocationId())
+                .build();
+        eventPublisher.publishEvent(new ShiftEvent(ShiftEvent.Type.ADJUST, response));
+        return response;
+    }
+    
+    /**
+     * The journal of one shift, oldest first.
+     */
+    @Transactional(readOnly = true)
+    public List<ShiftJournalEntryResponse> getShiftJournal(Long shiftId) {
+        List<ShiftJournalEntryResponse> entries = shiftJournalRepository.findByShiftIdOrderById(shiftId).stream()
+                .map(entry -> ShiftJournalEntryResponse.builder()
+                        .id(entry.getId())
+                        .eventType(entry.getEventType())
+                        .shiftId(entry.getShiftId())
+                        .employeeId(entry.getEmployeeId())
+                        .clockIn(entry.getClockIn())
+                        .clockOut(entry.getClockOut())
+                        .totalMinutes(entry.getTotalMinutes())
+                        .anomaly(entry.getAnomaly())
+                        .recordedAt(entry.getRecordedAt())
+                        .recordedBy(entry.getRecordedBy())
+                        .build())
+                .collect(Collectors.toList());
+        if (entries.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Shift not found");
+        }
+        return entries;
     }
     
+    /**
+     * Served from the in-memory {@link ActiveShiftRegistry}; the database is
+     * only queried until the registry has finished its initial load. Not
+     * transactional, so the common path never borrows a connection.
+     */
     public Optional<ShiftResponse> getActiveShift(Long employeeId) {
+        if (activeShiftRegistry.isReady()) {
+            // The registry spans all locations
+            return activeShiftRegistry.find(employeeId)
+                    .filter(shift -> LocationContext.canSee(shift.getLocationId()));
+        }
         return shiftRepository.findActiveShiftByEmployeeId(employeeId)
-                .map(this::mapToResponse);
+                .map(ShiftService::mapToResponse);
     }
     
+    public List<ShiftResponse> getActiveShifts() {
+        if (activeShiftRegistry.isReady()) {
+            return activeShiftRegistry.findAll().stream()
+                    .filter(shift -> LocationContext.canSee(shift.getLocationId()))
+                    .collect(Collectors.toList());
+        }
+        return shiftRepository.findAllActiveShiftResponses();
+    }
+    
+    @Transactional(readOnly = true)
     public WeeklyHoursResponse getWeeklyHours(Long employeeId) {
+        return getWeeklyHours(employeeId, true);
+    }
+    
+    /**
+     * Totals come from the weekly summary table; the shift list is only loaded
+     * when the caller asks for it.
+     */
+    @Transactional(readOnly = true)
+    public WeeklyHoursResponse getWeeklyHours(Long employeeId, boolean includeShifts) {
         LocalDateTime[] weekRange = getCurrentWeekRange();
-        List<Shift> shifts = shiftRepository.findShiftsByEmployeeAndDateRange(
-            employeeId, weekRange[0], weekRange[1]
-        );
+        List<ShiftResponse> shiftResponses = includeShifts
+                ? shiftRepository.findShiftResponsesByEmployeeAndDateRange(employeeId, weekRange[0], weekRange[1])
+                : new ArrayList<>();
         
-        Employee employee = employeeRepository.findById(employeeId)
+        EmployeeSnapshot employee = employeeLookupService.findById(employeeId)
                 .orElseThrow(() -> new RuntimeException("Employee not found"));
         
-        BigDecimal totalHours = shifts.stream()
-                .filter(s -> s.getTotalHours() != null)
-                .map(Shift::getTotalHours)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        List<ShiftResponse> shiftResponses = shifts.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
-        
         return WeeklyHoursResponse.builder()
                 .employeeId(employeeId)
-                .employeeName(employee.getName())
-                .totalWeeklyHours(totalHours)
+                .employeeName(employee.name())
+                .totalWeeklyMinutes(weeklyHoursSummaryService.getWeeklyTotalMinutes(employeeId, weekRange[0].toLocalDate()))
                 .shifts(shiftResponses)
                 .build();
     }
     
+    @Transactional(readOnly = true)
     public List<WeeklyHoursResponse> getAllEmployeesWeeklyHours() {
+        return getAllEmployeesWeeklyHours(true);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<WeeklyHoursResponse> getAllEmployeesWeeklyHours(boolean includeShifts) {
         LocalDateTime[] weekRange = getCurrentWeekRange();
-        List<Shift> allShifts = shiftRepository.findAllShiftsByDateRange(
-            weekRange[0], weekRange[1]
-        );
-        
-        Map<Long, List<Shift>> shiftsByEmployee = allShifts.stream()
-                .collect(Collectors.groupingBy(s -> s.getEmployee().getId()));
-        
-        List<Employee> allEmployees = employeeRepository.findAll();
-        
-        return allEmployees.stream()
-                .filter(e -> e.getRole() == Employee.Role.EMPLOYEE)
-                .map(employee -> {
-                    List<Shift> employeeShifts = shiftsByEmployee.getOrDefault(
-                        employee.getId(), 
-                        new ArrayList<>()
-                    );
-                    
-                    BigDecimal totalHours = employeeShifts.stream()
-                            .filter(s -> s.getTotalHours() != null)
-                            .map(Shift::getTotalHours)
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
-                    
-                    List<ShiftResponse> shiftResponses = employeeShifts.stream()
-                            .map(this::mapToResponse)
-                            .collect(Collectors.toList());
-                    
-                    return WeeklyHoursResponse.builder()
-                            .employeeId(employee.getId())
-                            .employeeName(employee.getName())
-                            .totalWeeklyHours(totalHours)
-                            .shifts(shiftResponses)
-                            .build();
-                })
+        Map<Long, List<ShiftResponse>> shiftsByEmployee = includeShifts
+                ? shiftRepository.findAllShiftResponsesByDateRange(weekRange[0], weekRange[1]).stream()
+                        .collect(Collectors.groupingBy(ShiftResponse::getEmployeeId))
+                : new HashMap<>();
+        Map<Long, Long> totals = weeklyHoursSummaryService.getWeeklyTotalMinutes(weekRange[0].toLocalDate());
+        
+        List<Employee> employees = employeeRepository.findByRole(Employee.Role.EMPLOYEE);
+        
+        return employees.stream()
+                .map(employee -> WeeklyHoursResponse.builder()
+                        .employeeId(employee.getId())
+                        .employeeName(employee.getName())
+                        .totalWeeklyMinutes(totals.getOrDefault(employee.getId(), 0L))
+                        .shifts(shiftsByEmployee.getOrDefault(employee.getId(), new ArrayList<>()))
+                        .build())
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Returns one page of shifts with clockIn in [from, to), newest first.
+     * Pages are addressed by an opaque cursor on (clockIn, id) so that deep
+     * pages cost the same as the first one.
+     */
+    @Transactional(readOnly = true)
+    public ShiftHistoryResponse getShiftHistory(LocalDateTime from, LocalDateTime to,
+                                                Collection<Long> employeeIds, String cursor, int limit) {
+        if (!from.isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must be before 'to'");
+        }
+        int pageSize = Math.min(Math.max(limit, 1), MAX_HISTORY_PAGE_SIZE);
+        
+        LocalDateTime cursorClockIn = to;
+        long cursorId = Long.MIN_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = decodeCursor(cursor);
+            LocalDateTime decodedClockIn = LocalDateTime.parse(parts[0]);
+            if (decodedClockIn.isBefore(to)) {
+                cursorClockIn = decodedClockIn;
+                cursorId = Long.parseLong(parts[1]);
+            }
+        }
+        
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        List<ShiftResponse> rows = (employeeIds == null || employeeIds.isEmpty())
+                ? shiftRepository.findShiftHistoryPage(from, cursorClockIn, cursorId, page)
+                : shiftRepository.findShiftHistoryPageForEmployees(employeeIds, from, cursorClockIn, cursorId, page);
+        
+        // Archived months are older than anything still in the table, so a
+        // short page continues into the archive from its last row
+        if (rows.size() <= pageSize) {
+            ShiftResponse last = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+            rows = new ArrayList<>(rows);
+            rows.addAll(shiftArchiveService.readPage(from,
+                    last == null ? cursorClockIn : last.getClockIn(), last == null ? cursorId : last.getId(),
+                    employeeIds, pageSize + 1 - rows.size()));
+        }
+        
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = new ArrayList<>(rows.subList(0, pageSize));
+            ShiftResponse last = rows.get(pageSize - 1);
+            nextCursor = encodeCursor(last.getClockIn(), last.getId());
+        }
+        
+        return ShiftHistoryResponse.builder()
+                .shifts(rows)
+                .nextCursor(nextCursor)
+                .build();
+    }
+    
+    private String encodeCursor(LocalDateTime clockIn, Long id) {
+        String raw = clockIn + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            LocalDateTime.parse(parts[0]);
+            Long.parseLong(parts[1]);
+            return parts;
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+    
     private LocalDateTime[] getCurrentWeekRange() {
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime startOfWeek = now.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
@@ -139,14 +370,15 @@ public class ShiftService {
         return new LocalDateTime[]{startOfWeek, endOfWeek};
     }
     
-    private ShiftResponse mapToResponse(Shift shift) {
+    static ShiftResponse mapToResponse(Shift shift) {
         return ShiftResponse.builder()
                 .id(shift.getId())
                 .employeeId(shift.getEmployee().getId())
                 .employeeName(shift.getEmployee().getName())
                 .clockIn(shift.getClockIn())
                 .clockOut(shift.getClockOut())
-                .totalHours(shift.getTotalHours())
+                .totalMinutes(shift.getTotalMinutes())
+                .locationId(shift.getLocationId())
                 .build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,287 @@
+package com.restaurant.shifttracker.service;
+
+import com.restaurant.shifttracker.dto.ShiftResponse;
+import com.restaurant.shifttracker.entity.Employee;
+import com.restaurant.shifttracker.entity.Shift;
+import com.restaurant.shifttracker.event.ShiftEvent;
+import com.restaurant.shifttracker.repository.EmployeeRepository;
+import com.restaurant.shifttracker.repository.ShiftRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Optional write path for clock-in/clock-out bursts. Requests are queued and a
+ * single worker groups them into micro-batches: one query loads the batch's
+ * employees, one loads their open shifts, and inserts/updates go out as JDBC
+ * batches in a single transaction. Each caller is released when its batch
+ * commits.
+ *
+ * Commands are applied in arrival order, so a clock-in followed by a clock-out
+ * for the same employee behaves exactly as it would on the direct path. If a
+ * batch fails to commit (e.g. uk_shift_open caught a clock-in racing with
+ * another node), its commands are retried one at a time so a single bad
+ * command cannot fail its neighbours.
+ *
+ * A caller that gives up waiting gets a 503. If its command was still queued
+ * it is withdrawn first, so nothing was written and the request can simply be
+ * retried. If the worker had already taken it, the write may still commit;
+ * the 503 says so. A retry is still safe, since a repeated clock-in or
+ * clock-out is refused as "Already clocked in" or "No active shift found".
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "shift.write-pipeline.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ShiftWritePipeline {
+    
+    private final ShiftRepository shiftRepository;
+    private final EmployeeRepository employeeRepository;
+    private final WeeklyHoursSummaryService weeklyHoursSummaryService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    @Value("${shift.write-pipeline.batch-size:100}")
+    private int batchSize;
+    
+    @Value("${shift.write-pipeline.max-delay-ms:5}")
+    private long maxDelayMs;
+    
+    @Value("${shift.write-pipeline.queue-capacity:10000}")
+    private int queueCapacity;
+    
+    @Value("${shift.write-pipeline.timeout-ms:10000}")
+    private long timeoutMs;
+    
+    private BlockingQueue<Command> queue;
+    private Thread worker;
+    private volatile boolean running;
+    
+    private enum Type {
+        CLOCK_IN, CLOCK_OUT
+    }
+    
+    private record Command(Type type, Long employeeId, LocalDateTime at, CompletableFuture<ShiftResponse> result) {
+    }
+    
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        worker = new Thread(this::run, "shift-write-pipeline");
+        worker.setDaemon(true);
+        worker.start();
+    }
+    
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        worker.join(timeoutMs);
+    }
+    
+    public ShiftResponse clockIn(Long employeeId) {
+        return submit(Type.CLOCK_IN, employeeId);
+    }
+    
+    public ShiftResponse clockOut(Long employeeId) {
+        return submit(Type.CLOCK_OUT, employeeId);
+    }
+    
+    private ShiftResponse submit(Type type, Long employeeId) {
+        Command command = new Command(type, employeeId, LocalDateTime.now(), new CompletableFuture<>());
+        if (!running || !queue.offer(command)) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Shift write queue is full");
+        }
+        
+        try {
+            return command.result().get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Shift write failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw abandon(command);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw abandon(command);
+        }
+    }
+    
+    private ResponseStatusException abandon(Command command) {
+        if (queue.remove(command)) {
+            return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Shift write timed out in the queue and was not applied");
+        }
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                "Shift write timed out while being applied and may still complete");
+    }
+    
+    private void run() {
+        List<Command> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Command first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Command next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+                queue.drainTo(batch);
+                ResponseStatusException stopped = new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                        "Shift write pipeline stopped");
+                batch.forEach(c -> c.result().completeExceptionally(stopped));
+                return;
+            } catch (RuntimeException e) {
+                log.error("Shift write pipeline error", e);
+                batch.forEach(c -> c.result().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+    
+    private void process(List<Command> batch) {
+        List<Object> outcomes;
+        try {
+            outcomes = transactionTemplate.execute(status -> apply(batch));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                Command command = batch.get(0);
+                boolean conflict = command.type() == Type.CLOCK_IN && e instanceof DataIntegrityViolationException violation
+                        && ShiftService.isOpenShiftConflict(violation);
+                command.result().completeExceptionally(conflict ? new RuntimeException("Already clocked in") : e);
+                return;
+            }
+            log.warn("Shift write batch of {} failed, retrying one by one: {}", batch.size(), e.getMessage());
+            for (Command command : batch) {
+                process(List.of(command));
+            }
+            return;
+        }
+        
+        for (int i = 0; i < batch.size(); i++) {
+            Object outcome = outcomes.get(i);
+            if (outcome instanceof ShiftResponse response) {
+                batch.get(i).result().complete(response);
+            } else {
+                batch.get(i).result().completeExceptionally((RuntimeException) outcome);
+            }
+        }
+    }
+    
+    /**
+     * Applies the batch inside the current transaction. Returns, per command,
+     * either the ShiftResponse the direct path would have returned or the
+     * RuntimeException it would have thrown.
+     */
+    private List<Object> apply(List<Command> batch) {
+        Set<Long> employeeIds = batch.stream().map(Command::employeeId).collect(Collectors.toSet());
+        Map<Long, Employee> employees = employeeRepository.findAllById(employeeIds).stream()
+                .collect(Collectors.toMap(Employee::getId, Function.identity()));
+        Map<Long, Shift> openShifts = shiftRepository.findActiveShiftsByEmployeeIds(employeeIds).stream()
+                .collect(Collectors.toMap(s -> s.getEmployee().getId(), Function.identity(), (a, b) -> a));
+        
+        List<Object> outcomes = new ArrayList<>(batch.size());
+        List<Shift> inserts = new ArrayList<>();
+        List<Shift> closed = new ArrayList<>();
+        List<ShiftEvent.Type> events = new ArrayList<>(batch.size());
+        
+        for (Command command : batch) {
+            Long employeeId = command.employeeId();
+            if (command.type() == Type.CLOCK_IN) {
+                Employee employee = employees.get(employeeId);
+                if (employee == null) {
+                    outcomes.add(new RuntimeException("Employee not found"));
+                    events.add(null);
+                } else if (openShifts.containsKey(employeeId)) {
+                    outcomes.add(new RuntimeException("Already clocked in"));
+                    events.add(null);
+                } else {
+                    Shift shift = Shift.builder()
+                            .employee(employee)
+                            .locationId(employee.getLocationId())
+                            .clockIn(command.at())
+                            .build();
+                    openShifts.put(employeeId, shift);
+                    inserts.add(shift);
+                    outcomes.add(shift);
+                    events.add(ShiftEvent.Type.CLOCK_IN);
+                }
+            } else {
+                Shift shift = openShifts.remove(employeeId);
+                if (shift == null) {
+                    outcomes.add(new RuntimeException("No active shift found"));
+                    events.add(null);
+                } else {
+                    ShiftService.close(shift, command.at());
+                    closed.add(shift);
+                    outcomes.add(shift);
+                    events.add(ShiftEvent.Type.CLOCK_OUT);
+                }
+            }
+        }
+        
+        // Hibernate runs queued INSERTs before UPDATEs, so a clock-out of a shift
+        // opened before this batch is flushed first: otherwise the same
+        // employee's next clock-in would hit uk_shift_open ahead of it
+        shiftRepository.flush();
+        shiftRepository.saveAll(inserts);
+        for (Shift shift : closed) {
+            weeklyHoursSummaryService.recordClosedShift(shift.getEmployee().getId(), shift.getClockIn(),
+                    shift.getTotalMinutes());
+        }
+        shiftRepository.flush();
+        
+        // Ids are only known after saveAll. A clock-in (its caller's response and
+        // its event) always describes the open shift, even if the same batch has
+        // already closed it again.
+        for (int i = 0; i < outcomes.size(); i++) {
+            ShiftEvent.Type type = events.get(i);
+            if (type == null) {
+                continue;
+            }
+            Shift shift = (Shift) outcomes.get(i);
+            outcomes.set(i, snapshot(shift, type));
+            eventPublisher.publishEvent(new ShiftEvent(type, snapshot(shift, type)));
+        }
+        return outcomes;
+    }
+    
+    private static ShiftResponse snapshot(Shift shift, ShiftEvent.Type type) {
+        ShiftResponse response = ShiftService.mapToResponse(shift);
+        if (type == ShiftEvent.Type.CLOCK_IN) {
+            response.setClockOut(null);
+            response.setTotalMinutes(null);
+        }
+        return response;
+    }
+}
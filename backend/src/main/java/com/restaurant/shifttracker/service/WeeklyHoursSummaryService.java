@@ -0,0 +1,139 @@
+package com.restaurant.shifttracker.service;
+
+import com.restaurant.shifttracker.entity.WeeklyHoursSummary;
+import com.restaurant.shifttracker.repository.ShiftRepository;
+import com.restaurant.shifttracker.repository.WeeklyHoursSummaryRepository;
+import com.restaurant.shifttracker.util.LocationContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the weekly_hours_summary table: one row per employee and ISO week
+ * holding the sum of closed shift minutes. Clock-out adds to the row in the same
+ * transaction; the rebuild job recomputes whole weeks from the shifts table to
+ * repair any drift. Every write is a single upsert or recompute of one row, so
+ * concurrent clock-outs and rebuilds never lose each other's minutes.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WeeklyHoursSummaryService {
+    
+    private final WeeklyHoursSummaryRepository summaryRepository;
+    private final ShiftRepository shiftRepository;
+    private final ChangeCounters changeCounters;
+    
+    @Value("${weekly-hours.summary.rebuild-weeks:2}")
+    private int rebuildWeeks;
+    
+    @Transactional
+    public void recordClosedShift(Long employeeId, LocalDateTime clockIn, int minutes) {
+        summaryRepository.addShiftMinutes(employeeId, isoWeekOf(clockIn.toLocalDate()), minutes, LocalDateTime.now());
+    }
+    
+    /**
+     * Recomputes one employee's row for one week from the shifts table. Used
+     * where an increment cannot be derived, i.e. corrections and journal replay.
+     */
+    @Transactional
+    public void recomputeWeek(Long employeeId, LocalDate dayInWeek) {
+        recomputeRow(employeeId, dayInWeek.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)));
+    }
+    
+    private void recomputeRow(Long employeeId, LocalDate monday) {
+        int isoWeek = isoWeekOf(monday);
+        LocalDateTime start = monday.atStartOfDay();
+        LocalDateTime end = monday.plusDays(6).atTime(LocalTime.MAX);
+        if (summaryRepository.recomputeFromShifts(employeeId, isoWeek, start, end, LocalDateTime.now()) == 0) {
+            summaryRepository.deleteIfNoShifts(employeeId, isoWeek, start, end);
+        }
+    }
+    
+    @Transactional(readOnly = true)
+    public long getWeeklyTotalMinutes(Long employeeId, LocalDate dayInWeek) {
+        return summaryRepository.findById(new WeeklyHoursSummary.Key(employeeId, isoWeekOf(dayInWeek)))
+                .map(WeeklyHoursSummary::getTotalMinutes)
+                .orElse(0L);
+    }
+    
+    @Transactional(readOnly = true)
+    public Map<Long, Long> getWeeklyTotalMinutes(LocalDate dayInWeek) {
+        return summaryRepository.findByIsoWeek(isoWeekOf(dayInWeek)).stream()
+                .collect(Collectors.toMap(w -> w.getId().getEmployeeId(), WeeklyHoursSummary::getTotalMinutes));
+    }
+    
+    /**
+     * Recomputes the current week and the configured number of preceding weeks.
+     */
+    @Scheduled(cron = "${weekly-hours.summary.rebuild-cron:0 30 3 * * *}")
+    @Transactional
+    public void rebuildRecentWeeks() {
+        int rows = rebuildWeeks(rebuildWeeks);
+        log.info("Rebuilt weekly hours summary for {} week(s), {} row(s)", rebuildWeeks, rows);
+    }
+    
+    /**
+     * Fills the summary on the first start after it was introduced, when the
+     * table is still empty but shifts are not. Older weeks are rebuilt on demand.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillIfEmpty() {
+        if (summaryRepository.count() == 0) {
+            int rows = rebuildWeeks(rebuildWeeks);
+            log.info("Backfilled empty weekly hours summary for {} week(s), {} row(s)", rebuildWeeks, rows);
+        }
+    }
+    
+    @Transactional
+    public int rebuildWeeks(int weeks) {
+        LocalDate today = LocalDate.now();
+        int rows = 0;
+        for (int i = 0; i < Math.max(1, weeks); i++) {
+            rows += rebuildWeek(today.minusWeeks(i));
+        }
+        changeCounters.bump(LocationContext.SYSTEM, ChangeCounters.Scope.SHIFTS);
+        return rows;
+    }
+    
+    /**
+     * Recomputes, one row at a time, every employee of the caller's location
+     * that has closed shifts or a summary row in the week. Both lookups are
+     * location-scoped, so a location's rebuild never touches other rows.
+     */
+    private int rebuildWeek(LocalDate dayInWeek) {
+        LocalDate monday = dayInWeek.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        List<Object[]> totals = shiftRepository.sumMinutesByEmployeeAndDateRange(
+            monday.atStartOfDay(), monday.plusDays(6).atTime(LocalTime.MAX)
+        );
+        
+        Set<Long> employeeIds = new LinkedHashSet<>();
+        totals.forEach(row -> employeeIds.add((Long) row[0]));
+        summaryRepository.findByIsoWeek(isoWeekOf(monday)).forEach(w -> employeeIds.add(w.getId().getEmployeeId()));
+        for (Long employeeId : employeeIds) {
+            recomputeRow(employeeId, monday);
+        }
+        return totals.size();
+    }
+    
+    static int isoWeekOf(LocalDate date) {
+        return date.get(IsoFields.WEEK_BASED_YEAR) * 100 + date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR);
+    }
+}
@@ -0,0 +1,70 @@
+package com.restaurant.shifttracker.util;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fair semaphore around a scarce resource (JDBC connections, BCrypt CPU time).
+ * With virtual threads the request pool no longer limits how many callers
+ * reach the resource at once, so this does. Publishes, tagged by name:
+ * concurrency.limiter.wait (time spent queued), concurrency.limiter.waiting
+ * and concurrency.limiter.active.
+ */
+public class ConcurrencyLimiter {
+    
+    private final String name;
+    private final int permits;
+    private final Semaphore semaphore;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Timer waitTimer;
+    
+    public ConcurrencyLimiter(String name, int permits, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.permits = permits;
+        this.semaphore = new Semaphore(permits, true);
+        this.waitTimer = Timer.builder("concurrency.limiter.wait")
+                .tag("name", name)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("concurrency.limiter.waiting", waiting, AtomicInteger::get)
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder("concurrency.limiter.active", semaphore, s -> permits - s.availablePermits())
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public int getPermits() {
+        return permits;
+    }
+    
+    /**
+     * Waits up to {@code timeoutMs} for a permit; false on timeout or interrupt.
+     * Every successful acquire must be paired with {@link #release()}.
+     */
+    public boolean acquire(long timeoutMs) {
+        long start = System.nanoTime();
+        waiting.incrementAndGet();
+        try {
+            return semaphore.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            waiting.decrementAndGet();
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    public void release() {
+        semaphore.release();
+    }
+}
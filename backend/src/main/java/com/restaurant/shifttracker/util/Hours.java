@@ -0,0 +1,25 @@
+package com.restaurant.shifttracker.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Converts stored minute counts to the two-decimal hours shown to clients.
+ * Durations are kept and summed as whole minutes; convert only once, after
+ * aggregating, so per-shift rounding never accumulates into totals.
+ */
+public final class Hours {
+    
+    private static final BigDecimal MINUTES_PER_HOUR = BigDecimal.valueOf(60);
+    
+    private Hours() {
+    }
+    
+    public static BigDecimal fromMinutes(Number minutes) {
+        return minutes == null ? null : fromMinutes(minutes.longValue());
+    }
+    
+    public static BigDecimal fromMinutes(long minutes) {
+        return BigDecimal.valueOf(minutes).divide(MINUTES_PER_HOUR, 2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,30 @@
+package com.restaurant.shifttracker.util;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import java.security.Principal;
+import java.time.Instant;
+
+/**
+ * Verified contents of a JWT. Built once per distinct token by {@link JwtUtil}
+ * and published on the SecurityContext, so controllers read the caller's id
+ * from here instead of parsing the Authorization header again.
+ */
+public record JwtPrincipal(String username, String role, Long userId, Long locationId, Instant expiresAt)
+        implements Principal {
+    
+    /**
+     * The principal on this thread's SecurityContext, or null outside a
+     * JWT-authenticated request.
+     */
+    public static JwtPrincipal current() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof JwtPrincipal principal
+                ? principal : null;
+    }
+    
+    @Override
+    public String getName() {
+        return username;
+    }
+}
@@ -1,15 +1,32 @@
 package com.restaurant.shifttracker.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtil {
@@ -20,14 +37,58 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private Long expiration;
     
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    @Value("${jwt.cache.max-size:10000}")
+    private long cacheMaxSize;
+    
+    // Optional so the class can be built by hand in tests and benchmarks
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+    
+    private Key signingKey;
+    private JwtParser parser;
+    private Timer verifyTimer;
+    private Counter cacheHits;
+    
+    // Verified principals keyed by SHA-256 of the token; entries expire with the token.
+    private Cache<String, JwtPrincipal> principalCache;
+    
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        principalCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new Expiry<String, JwtPrincipal>() {
+                    @Override
+                    public long expireAfterCreate(String key, JwtPrincipal principal, long currentTime) {
+                        return Math.max(0, Duration.between(Instant.now(), principal.expiresAt()).toNanos());
+                    }
+                    
+                    @Override
+                    public long expireAfterUpdate(String key, JwtPrincipal principal, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                    
+                    @Override
+                    public long expireAfterRead(String key, JwtPrincipal principal, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        MeterRegistry registry = meterRegistry != null ? meterRegistry : Metrics.globalRegistry;
+        verifyTimer = Timer.builder("auth.jwt.verify")
+                .description("Signature checks of tokens not yet in the principal cache")
+                .publishPercentiles(0.5, 0.99).register(registry);
+        cacheHits = Counter.builder("auth.jwt.cache.hits").register(registry);
     }
     
-    public String generateToken(String username, String role, Long userId) {
+    public String generateToken(String username, String role, Long userId, Long locationId) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("role", role);
         claims.put("userId", userId);
+        claims.put("locationId", locationId);
         return createToken(claims, username);
     }
     
@@ -37,36 +98,66 @@ public class JwtUtil {
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
     
+    /**
+     * Verifies the token and returns its principal. A token is parsed and
+     * signature-checked only on its first use; later calls are a digest plus
+     * a cache lookup until the token expires. Invalid or expired tokens throw
+     * the usual {@link io.jsonwebtoken.JwtException}.
+     */
+    public JwtPrincipal parseToken(String token) {
+        String key = digest(token);
+        JwtPrincipal cached = principalCache.getIfPresent(key);
+        if (cached != null) {
+            cacheHits.increment();
+            return cached;
+        }
+        
+        long start = System.nanoTime();
+        Claims claims;
+        try {
+            claims = extractAllClaims(token);
+        } finally {
+            verifyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        Long locationId = claims.get("locationId", Long.class);
+        JwtPrincipal principal = new JwtPrincipal(
+            claims.getSubject(),
+            claims.get("role", String.class),
+            claims.get("userId", Long.class),
+            // Tokens issued before locations existed belong to the original site
+            locationId == null ? LocationContext.DEFAULT_LOCATION_ID : locationId,
+            claims.getExpiration().toInstant()
+        );
+        principalCache.put(key, principal);
+        return principal;
+    }
+    
     public String extractUsername(String token) {
-        return extractAllClaims(token).getSubject();
+        return parseToken(token).username();
     }
     
     public String extractRole(String token) {
-        return extractAllClaims(token).get("role", String.class);
+        return parseToken(token).role();
     }
     
     public Long extractUserId(String token) {
-        return extractAllClaims(token).get("userId", Long.class);
-    }
-    
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parseToken(token).userId();
     }
     
-    public Boolean validateToken(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        return (extractedUsername.equals(username) && !isTokenExpired(token));
+    public Claims extractAllClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
     
-    private Boolean isTokenExpired(String token) {
-        return extractAllClaims(token).getExpiration().before(new Date());
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,39 @@
+package com.restaurant.shifttracker.util;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * The restaurant location the current caller is scoped to, taken from the
+ * locationId claim of its JWT. Code running without a JWT principal (login,
+ * scheduled jobs, the write pipeline thread, startup) runs in the system
+ * scope and sees every location.
+ */
+public final class LocationContext {
+    
+    /** Tenant id of the system scope; never a real location. */
+    public static final Long SYSTEM = 0L;
+    
+    /** Location of rows that predate multi-location support, and of the seeded admin. */
+    public static final Long DEFAULT_LOCATION_ID = 1L;
+    
+    private LocationContext() {
+    }
+    
+    /**
+     * The caller's location id, or null in the system scope.
+     */
+    public static Long current() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof JwtPrincipal principal
+                && principal.locationId() != null && !SYSTEM.equals(principal.locationId())) {
+            return principal.locationId();
+        }
+        return null;
+    }
+    
+    public static boolean canSee(Long locationId) {
+        Long current = current();
+        return current == null || current.equals(locationId);
+    }
+}
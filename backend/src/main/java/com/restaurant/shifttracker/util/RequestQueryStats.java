@@ -0,0 +1,42 @@
+package com.restaurant.shifttracker.util;
+
+/**
+ * JDBC statements and rows of the request being handled on this thread,
+ * counted from Hibernate statistics events while a request is open (see
+ * QueryMetricsFilter). Work on other threads, such as the write pipeline or
+ * async streaming, is not attributed to the request.
+ */
+public final class RequestQueryStats {
+    
+    private static final ThreadLocal<long[]> CURRENT = new ThreadLocal<>();
+    
+    public record Snapshot(long statements, long rows) {
+    }
+    
+    private RequestQueryStats() {
+    }
+    
+    public static void begin() {
+        CURRENT.set(new long[2]);
+    }
+    
+    public static Snapshot end() {
+        long[] counts = CURRENT.get();
+        CURRENT.remove();
+        return counts == null ? new Snapshot(0, 0) : new Snapshot(counts[0], counts[1]);
+    }
+    
+    public static void statementPrepared() {
+        long[] counts = CURRENT.get();
+        if (counts != null) {
+            counts[0]++;
+        }
+    }
+    
+    public static void rowsFetched(long rows) {
+        long[] counts = CURRENT.get();
+        if (counts != null && rows > 0) {
+            counts[1] += rows;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.restaurant.shifttracker;
+
+import com.restaurant.shifttracker.util.JwtUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fires N simultaneous clock-ins over HTTP against a real server, once on the
+ * Tomcat platform-thread pool and once on virtual threads with the JDBC/BCrypt
+ * limits on, and logs latency percentiles for both. Each mode boots its own
+ * server, so the whole class is opt-in rather than part of every build:
+ *
+ *     mvn test -Dtest=ClockInLoadTest -Dloadtest=true [-Dloadtest.clients=2000]
+ *
+ * Runs on H2, so compare the two modes with each other, not with production.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class ClockInLoadTest {
+
+    @Test
+    void bothModesServeConcurrentClockIns() throws Exception {
+        for (boolean virtual : new boolean[] {false, true}) {
+            long[] latencies = run(virtual, 50);
+            assertEquals(50, latencies.length);
+        }
+    }
+
+    @Test
+    void compareP99LatencyOfPlatformAndVirtualThreads() throws Exception {
+        int clients = Integer.getInteger("loadtest.clients", 2000);
+        long[] platform = run(false, clients);
+        long[] virtual = run(true, clients);
+        assertEquals(clients, platform.length);
+        assertEquals(clients, virtual.length);
+        log.info("clock-in x{}  platform: {}", clients, summary(platform));
+        log.info("clock-in x{}  virtual:  {}", clients, summary(virtual));
+    }
+
+    private long[] run(boolean virtual, int clients) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ShiftTrackerApplication.class)
+                .properties("server.port=0",
+                        "spring.threads.virtual.enabled=" + virtual,
+                        "shift.concurrency.limits.enabled=" + virtual)
+                .run()) {
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            assertEquals(virtual, context.getBean(DataSource.class).getClass().getSimpleName().equals("BoundedDataSource"));
+            List<String> tokens = seedEmployees(context, clients);
+
+            HttpClient http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<long[]>> results = new ArrayList<>();
+            try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (String token : tokens) {
+                    results.add(callers.submit(() -> {
+                        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/shifts/clock-in"))
+                                .header("Authorization", "Bearer " + token)
+                                .timeout(Duration.ofSeconds(60))
+                                .POST(HttpRequest.BodyPublishers.noBody())
+                                .build();
+                        start.await();
+                        long began = System.nanoTime();
+                        HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                        return new long[] {response.statusCode(), System.nanoTime() - began};
+                    }));
+                }
+                start.countDown();
+            }
+
+            long[] latencies = new long[results.size()];
+            for (int i = 0; i < latencies.length; i++) {
+                long[] result = results.get(i).get();
+                assertTrue(result[0] == 200, "clock-in returned " + result[0]);
+                latencies[i] = result[1];
+            }
+            Arrays.sort(latencies);
+            return latencies;
+        }
+    }
+
+    private List<String> seedEmployees(ConfigurableApplicationContext context, int count) {
+        JdbcTemplate jdbc = new JdbcTemplate(context.getBean(DataSource.class));
+        JwtUtil jwtUtil = context.getBean(JwtUtil.class);
+        String prefix = "load-" + System.nanoTime() + "-";
+        // Explicit ids, clear of the range Hibernate allocates from employee_seq.
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[] {1_000_000_000L + i, "Load " + i, prefix + i});
+        }
+        jdbc.batchUpdate("INSERT INTO employees (id, location_id, name, username, password, role, is_active) "
+                + "VALUES (?, 1, ?, ?, 'x', 'EMPLOYEE', TRUE)", rows);
+        return jdbc.query("SELECT id, username FROM employees WHERE username LIKE ?",
+                (rs, n) -> jwtUtil.generateToken(rs.getString("username"), "EMPLOYEE", rs.getLong("id"), 1L),
+                prefix + "%");
+    }
+
+    private String summary(long[] sortedNanos) {
+        return String.format("p50=%.1fms p99=%.1fms max=%.1fms",
+                percentile(sortedNanos, 0.50), percentile(sortedNanos, 0.99),
+                sortedNanos[sortedNanos.length - 1] / 1e6);
+    }
+
+    private double percentile(long[] sortedNanos, double p) {
+        int index = (int) Math.ceil(p * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1e6;
+    }
+}
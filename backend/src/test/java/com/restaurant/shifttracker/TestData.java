@@ -0,0 +1,41 @@
+package com.restaurant.shifttracker;
+
+import com.restaurant.shifttracker.entity.Employee;
+import com.restaurant.shifttracker.entity.Shift;
+import java.time.LocalDateTime;
+
+/**
+ * Builders for the employees and shifts that tests save. Test classes with the
+ * same configuration share one Spring context and so one database, which is
+ * why every username gets a System.nanoTime() suffix.
+ */
+public final class TestData {
+
+    private TestData() {
+    }
+
+    /**
+     * An active employee called "{@code prefix} employee" with a unique
+     * username starting with {@code prefix}.
+     */
+    public static Employee.EmployeeBuilder employee(String prefix) {
+        return Employee.builder()
+                .name(prefix + " employee")
+                .username(prefix + "-" + System.nanoTime())
+                .password("secret")
+                .role(Employee.Role.EMPLOYEE)
+                .isActive(true);
+    }
+
+    public static Shift.ShiftBuilder openShift(Employee employee, LocalDateTime clockIn) {
+        return Shift.builder()
+                .employee(employee)
+                .clockIn(clockIn);
+    }
+
+    public static Shift.ShiftBuilder closedShift(Employee employee, LocalDateTime clockIn, int minutes) {
+        return openShift(employee, clockIn)
+                .clockOut(clockIn.plusMinutes(minutes))
+                .totalMinutes(minutes);
+    }
+}
@@ -0,0 +1,97 @@
+package com.restaurant.shifttracker.config;
+
+import com.restaurant.shifttracker.TestData;
+import com.restaurant.shifttracker.entity.Employee;
+import com.restaurant.shifttracker.entity.Shift;
+import com.restaurant.shifttracker.repository.EmployeeRepository;
+import com.restaurant.shifttracker.repository.ShiftRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A database whose rows were created with AUTO_INCREMENT ids, so the
+ * sequences Hibernate added start below ids that are already taken.
+ */
+@SpringBootTest
+class IdSequenceSeederTest {
+
+    private static final int EXISTING_ROWS = 300;
+
+    @Autowired
+    private IdSequenceSeeder seeder;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> employeeIds = new ArrayList<>();
+    private final List<Long> shiftIds = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        shiftIds.forEach(id -> jdbcTemplate.update("DELETE FROM shifts WHERE id = ?", id));
+        employeeIds.forEach(id -> jdbcTemplate.update("DELETE FROM employees WHERE id = ?", id));
+    }
+
+    @Test
+    void newRowsGetIdsPastRowsThatPredateTheSequences() {
+        long firstEmployeeId = nextSequenceValue("employee_seq");
+        long firstShiftId = nextSequenceValue("shift_seq");
+        LocalDateTime clockIn = LocalDateTime.of(2020, 1, 6, 9, 0);
+        jdbcTemplate.batchUpdate("INSERT INTO employees (id, location_id, name, username, password, role, is_active) "
+                        + "VALUES (?, 0, 'Existing', ?, 'secret', 'EMPLOYEE', TRUE)",
+                IntStream.range(0, EXISTING_ROWS)
+                        .mapToObj(i -> new Object[]{firstEmployeeId + i, "existing-" + (firstEmployeeId + i)})
+                        .toList());
+        jdbcTemplate.batchUpdate("INSERT INTO shifts (id, employee_id, location_id, clock_in, clock_out, total_minutes) "
+                        + "VALUES (?, ?, 0, ?, ?, 60)",
+                IntStream.range(0, EXISTING_ROWS)
+                        .mapToObj(i -> new Object[]{firstShiftId + i, firstEmployeeId,
+                                Timestamp.valueOf(clockIn.plusDays(i)), Timestamp.valueOf(clockIn.plusDays(i).plusHours(1))})
+                        .toList());
+        IntStream.range(0, EXISTING_ROWS).forEach(i -> {
+            employeeIds.add(firstEmployeeId + i);
+            shiftIds.add(firstShiftId + i);
+        });
+
+        seeder.seed();
+
+        // More than a block each, so fresh blocks are fetched from the sequences
+        List<Employee> employees = employeeRepository.saveAll(IntStream.range(0, 120)
+                .mapToObj(i -> TestData.employee("seeded-" + i).build())
+                .toList());
+        employees.forEach(e -> employeeIds.add(e.getId()));
+        Employee employee = employees.get(0);
+        List<Shift> shifts = shiftRepository.saveAll(IntStream.range(0, 120)
+                .mapToObj(i -> TestData.closedShift(employee, clockIn.minusDays(i + 1), 60).build())
+                .toList());
+        shifts.forEach(s -> shiftIds.add(s.getId()));
+
+        // saveAll would already have failed on a duplicate key
+        assertTrue(employees.stream().noneMatch(e -> e.getId() >= firstEmployeeId
+                && e.getId() < firstEmployeeId + EXISTING_ROWS));
+        assertTrue(shifts.stream().noneMatch(s -> s.getId() >= firstShiftId
+                && s.getId() < firstShiftId + EXISTING_ROWS));
+    }
+
+    private long nextSequenceValue(String sequence) {
+        return jdbcTemplate.queryForObject(
+                "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE UPPER(SEQUENCE_NAME) = ?",
+                Long.class, sequence.toUpperCase());
+    }
+}
@@ -0,0 +1,92 @@
+package com.restaurant.shifttracker.config;
+
+import com.restaurant.shifttracker.util.JwtPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final DataSource primary = database("primary");
+    private final DataSource replica = database("replica");
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, List.of(replica), Duration.ofSeconds(5), 0);
+
+        signInAs(6L);
+        assertEquals("replica", whoAnswers(routing, true));
+        assertEquals("primary", whoAnswers(routing, false));
+    }
+
+    @Test
+    void callersReadTheirOwnWritesFromThePrimary() {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, List.of(replica), Duration.ofSeconds(5), 0);
+
+        signInAs(7L);
+        assertEquals("primary", whoAnswers(routing, false));
+        assertEquals("primary", whoAnswers(routing, true));
+
+        signInAs(8L);
+        assertEquals("replica", whoAnswers(routing, true));
+    }
+
+    @Test
+    void backgroundWorkWithoutAUserReadsThePrimary() {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, List.of(replica), Duration.ofSeconds(5), 0);
+
+        assertEquals("primary", whoAnswers(routing, true));
+    }
+
+    @Test
+    void unavailableReplicaFallsBackToThePrimary() {
+        DataSource missing = new DriverManagerDataSource("jdbc:h2:mem:missing-" + UUID.randomUUID() + ";IFEXISTS=TRUE", "sa", "");
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, List.of(missing), Duration.ofSeconds(5), 0);
+
+        signInAs(9L);
+        assertEquals("primary", whoAnswers(routing, true));
+        assertEquals(0, routing.healthyReplicaCount());
+
+        routing.checkReplicas();
+        assertEquals(0, routing.healthyReplicaCount());
+    }
+
+    private static String whoAnswers(DataSource dataSource, boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transaction.setReadOnly(readOnly);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        return transaction.execute(status -> jdbc.queryForObject("SELECT name FROM whoami", String.class));
+    }
+
+    private static void signInAs(long userId) {
+        JwtPrincipal principal = new JwtPrincipal("user-" + userId, "EMPLOYEE", userId, 1L, Instant.now().plusSeconds(60));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+
+    private static DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE whoami (name VARCHAR(20))");
+        jdbc.update("INSERT INTO whoami VALUES (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,128 @@
+package com.restaurant.shifttracker.controller;
+
+import com.restaurant.shifttracker.TestData;
+import com.restaurant.shifttracker.dto.EmployeeRequest;
+import com.restaurant.shifttracker.entity.Employee;
+import com.restaurant.shifttracker.repository.EmployeeRepository;
+import com.restaurant.shifttracker.service.ChangeCounters;
+import com.restaurant.shifttracker.service.EmployeeService;
+import com.restaurant.shifttracker.service.ShiftService;
+import com.restaurant.shifttracker.util.JwtUtil;
+import com.restaurant.shifttracker.util.LocationContext;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private ShiftService shiftService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ChangeCounters changeCounters;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private String adminToken;
+
+    @BeforeEach
+    void setUp() {
+        adminToken = jwtUtil.generateToken("etag-admin", "ADMIN", 1L, LocationContext.DEFAULT_LOCATION_ID);
+    }
+
+    @Test
+    void unchangedEmployeeListIsAnswered304WithoutQueries() throws Exception {
+        String etag = fetch("/api/admin/employees", null, 200);
+        assertNotNull(etag);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long before = statistics.getPrepareStatementCount();
+        mockMvc.perform(get("/api/admin/employees")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        assertEquals(before, statistics.getPrepareStatementCount());
+
+        employeeService.createEmployee(new EmployeeRequest(
+                "ETag employee", "etag-" + System.nanoTime(), "secret"));
+        assertNotEquals(etag, fetch("/api/admin/employees", etag, 200));
+    }
+
+    @Test
+    void weeklyReportChangesWithShifts() throws Exception {
+        Employee employee = employeeRepository.save(TestData.employee("etag-shift").build());
+        String etag = fetch("/api/admin/weekly-hours", null, 200);
+        assertEquals(etag, fetch("/api/admin/weekly-hours", etag, 304));
+
+        shiftService.clockIn(employee.getId());
+        String afterClockIn = fetch("/api/admin/weekly-hours", etag, 200);
+        assertNotEquals(etag, afterClockIn);
+        shiftService.clockOut(employee.getId());
+    }
+
+    @Test
+    void weeklyReportWithoutShiftsHasItsOwnEtag() throws Exception {
+        String withShifts = fetch("/api/admin/weekly-hours", null, 200);
+        fetch("/api/admin/weekly-hours?includeShifts=false", withShifts, 200);
+    }
+
+    @Test
+    void etagAndReportShareOneReadOnlyTransaction() {
+        boolean[] sameTransaction = new boolean[1];
+        String etag = changeCounters.readWithEtag("probe", e -> {
+            // The counters were read through the transaction's connection
+            sameTransaction[0] = TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                    && TransactionSynchronizationManager.hasResource(dataSource);
+            return e;
+        }, ChangeCounters.Scope.EMPLOYEES);
+
+        assertNotNull(etag);
+        assertTrue(sameTransaction[0]);
+    }
+
+    private String fetch(String path, String ifNoneMatch, int expectedStatus) throws Exception {
+        var request = get(path).header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken);
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return mockMvc.perform(request)
+                .andExpect(status().is(expectedStatus))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+}
@@ -0,0 +1,162 @@
+package com.restaurant.shifttracker.controller;
+
+import com.restaurant.shifttracker.TestData;
+import com.restaurant.shifttracker.dto.EmployeeRequest;
+import com.restaurant.shifttracker.dto.EmployeeResponse;
+import com.restaurant.shifttracker.dto.LaborAnalyticsResponse;
+import com.restaurant.shifttracker.dto.WeeklyHoursResponse;
+import com.restaurant.shifttracker.entity.Employee;
+import com.restaurant.shifttracker.repository.EmployeeRepository;
+import com.restaurant.shifttracker.repository.ShiftRepository;
+import com.restaurant.shifttracker.service.ActiveShiftRegistry;
+import com.restaurant.shifttracker.service.EmployeeLookupService;
+import com.restaurant.shifttracker.service.EmployeeService;
+import com.restaurant.shifttracker.service.LaborAnalyticsService;
+import com.restaurant.shifttracker.service.ShiftService;
+import com.restaurant.shifttracker.service.WeeklyHoursSummaryService;
+import com.restaurant.shifttracker.util.JwtPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class LocationTenancyTest {
+
+    private static final long HOME = 101L;
+    private static final long OTHER = 202L;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeLookupService employeeLookupService;
+
+    @Autowired
+    private ShiftService shiftService;
+
+    @Autowired
+    private LaborAnalyticsService laborAnalyticsService;
+
+    @Autowired
+    private ActiveShiftRegistry activeShiftRegistry;
+
+    @Autowired
+    private WeeklyHoursSummaryService weeklyHoursSummaryService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    private Employee home;
+    private Employee other;
+
+    @BeforeEach
+    void setUp() {
+        shiftRepository.deleteAllInBatch();
+        activeShiftRegistry.reconcile();
+        // Set up in the system scope, which may assign any location
+        home = employee("home", HOME);
+        other = employee("other", OTHER);
+        shiftService.clockIn(home.getId());
+        shiftService.clockIn(other.getId());
+        closedShift(home);
+        closedShift(other);
+        // Cache the other location's employee before switching scope
+        assertTrue(employeeLookupService.findById(other.getId()).isPresent());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void adminOnlySeesOwnLocation() {
+        actAsAdminOf(HOME);
+
+        List<Long> employees = employeeService.getAllEmployees().stream().map(EmployeeResponse::getId).toList();
+        assertTrue(employees.contains(home.getId()));
+        assertFalse(employees.contains(other.getId()));
+
+        List<Long> weekly = shiftService.getAllEmployeesWeeklyHours(true).stream()
+                .map(WeeklyHoursResponse::getEmployeeId).toList();
+        assertTrue(weekly.contains(home.getId()));
+        assertFalse(weekly.contains(other.getId()));
+
+        assertEquals(List.of(home.getId()), shiftService.getActiveShifts().stream()
+                .map(s -> s.getEmployeeId()).toList());
+        assertFalse(shiftService.getActiveShift(other.getId()).isPresent());
+        assertFalse(employeeLookupService.findById(other.getId()).isPresent());
+        assertFalse(employeeRepository.findById(other.getId()).isPresent());
+
+        LaborAnalyticsResponse analytics = laborAnalyticsService.analyze(
+                LocalDateTime.now().minusHours(4), LocalDateTime.now());
+        int peak = 0;
+        for (int headcount : analytics.getPeakHeadcount()) {
+            peak = Math.max(peak, headcount);
+        }
+        assertEquals(1, peak);
+    }
+
+    @Test
+    void newEmployeesJoinTheAdminsLocationAndUsernamesStayGloballyUnique() {
+        actAsAdminOf(HOME);
+
+        EmployeeResponse created = employeeService.createEmployee(
+                new EmployeeRequest("New Hire", "new-hire-" + System.nanoTime(), "secret"));
+        RuntimeException duplicate = assertThrows(RuntimeException.class, () -> employeeService.createEmployee(
+                new EmployeeRequest("Clash", other.getUsername(), "secret")));
+        assertEquals("Username already exists", duplicate.getMessage());
+
+        SecurityContextHolder.clearContext();
+        assertEquals(HOME, employeeRepository.findById(created.getId()).orElseThrow().getLocationId());
+    }
+
+    @Test
+    void weeklyRebuildOnlyReplacesOwnLocationsRows() {
+        LocalDate shiftDay = LocalDateTime.now().minusHours(3).toLocalDate();
+        weeklyHoursSummaryService.rebuildWeeks(2);
+        assertEquals(120, weeklyHoursSummaryService.getWeeklyTotalMinutes(other.getId(), shiftDay));
+
+        actAsAdminOf(HOME);
+        weeklyHoursSummaryService.rebuildWeeks(2);
+
+        SecurityContextHolder.clearContext();
+        assertEquals(120, weeklyHoursSummaryService.getWeeklyTotalMinutes(home.getId(), shiftDay));
+        assertEquals(120, weeklyHoursSummaryService.getWeeklyTotalMinutes(other.getId(), shiftDay));
+    }
+
+    private void actAsAdminOf(long locationId) {
+        JwtPrincipal principal = new JwtPrincipal("admin-" + locationId, "ADMIN", -1L, locationId,
+                Instant.now().plusSeconds(60));
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                principal, null, List.of(new SimpleGrantedAuthority("ADMIN"))));
+    }
+
+    private void closedShift(Employee employee) {
+        LocalDateTime clockIn = LocalDateTime.now().minusHours(3);
+        shiftRepository.save(TestData.closedShift(employee, clockIn, 120)
+                .locationId(employee.getLocationId())
+                .build());
+    }
+
+    private Employee employee(String prefix, long locationId) {
+        return employeeRepository.save(TestData.employee(prefix).locationId(locationId).build());
+    }
+}
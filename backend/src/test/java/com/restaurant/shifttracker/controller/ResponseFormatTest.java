@@ -0,0 +1,101 @@
+package com.restaurant.shifttracker.controller;
+
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.restaurant.shifttracker.TestData;
+import com.restaurant.shifttracker.dto.CompactWeeklyHoursResponse;
+import com.restaurant.shifttracker.entity.Employee;
+import com.restaurant.shifttracker.repository.EmployeeRepository;
+import com.restaurant.shifttracker.service.ShiftService;
+import com.restaurant.shifttracker.util.JwtUtil;
+import com.restaurant.shifttracker.util.LocationContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ResponseFormatTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ShiftService shiftService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Test
+    void compactReportListsEachEmployeeOnceAndIsAvailableAsCbor() throws Exception {
+        Employee employee = employeeRepository.save(TestData.employee("compact").build());
+        shiftService.clockIn(employee.getId());
+        shiftService.clockOut(employee.getId());
+        shiftService.clockIn(employee.getId());
+        String token = jwtUtil.generateToken("format-admin", "ADMIN", 1L, LocationContext.SYSTEM);
+
+        MockHttpServletResponse json = mockMvc.perform(get("/api/admin/weekly-hours")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andReturn().getResponse();
+        MockHttpServletResponse cbor = mockMvc.perform(get("/api/admin/weekly-hours?shape=compact")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse();
+
+        assertTrue(json.getContentType().startsWith(MediaType.APPLICATION_JSON_VALUE));
+        assertTrue(cbor.getContentType().startsWith(MediaType.APPLICATION_CBOR_VALUE));
+        assertNotEquals(json.getHeader(HttpHeaders.ETAG), cbor.getHeader(HttpHeaders.ETAG));
+
+        CompactWeeklyHoursResponse report = new CBORMapper().readValue(cbor.getContentAsByteArray(),
+                CompactWeeklyHoursResponse.class);
+        int index = -1;
+        for (int i = 0; i < report.getEmployees().size(); i++) {
+            if (report.getEmployees().get(i).getId().equals(employee.getId())) {
+                index = i;
+            }
+        }
+        CompactWeeklyHoursResponse.Shifts shifts = report.getShifts();
+        int own = 0;
+        int open = 0;
+        for (int i = 0; i < shifts.getId().size(); i++) {
+            if (shifts.getEmployee().get(i) == index) {
+                own++;
+                open += shifts.getClockOut().get(i) == null ? 1 : 0;
+            }
+        }
+        assertEquals(2, own);
+        assertEquals(1, open);
+        assertTrue(cbor.getContentAsByteArray().length < json.getContentAsByteArray().length);
+
+        shiftService.clockOut(employee.getId());
+    }
+
+    @Test
+    void enumParametersIgnoreCaseAndRejectUnknownValuesWith400() throws Exception {
+        String token = jwtUtil.generateToken("format-admin", "ADMIN", 1L, LocationContext.SYSTEM);
+        String range = "from=2001-01-01T00:00:00&to=2001-01-02T00:00:00";
+
+        assertEquals(200, mockMvc.perform(get("/api/admin/shifts/export?" + range + "&format=ndjson")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andReturn().getResponse().getStatus());
+        assertEquals(400, mockMvc.perform(get("/api/admin/shifts/export?" + range + "&format=xml")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andReturn().getResponse().getStatus());
+        assertEquals(400, mockMvc.perform(post("/api/admin/shifts/sweep?action=delete")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andReturn().getResponse().getStatus());
+    }
+}
@@ -0,0 +1,133 @@
+package com.restaurant.shifttracker.service;
+
+import com.restaurant.shifttracker.TestData;
+import com.restaurant.shifttracker.dto.ShiftResponse;
+import com.restaurant.shifttracker.entity.Employee;
+import com.restaurant.shifttracker.event.ShiftEvent;
+import com.restaurant.shifttracker.repository.EmployeeRepository;
+import com.restaurant.shifttracker.repository.ShiftRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+class ActiveShiftRegistryTest {
+
+    @Autowired
+    private ShiftService shiftService;
+
+    @Autowired
+    private ActiveShiftRegistry activeShiftRegistry;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        shiftRepository.deleteAllInBatch();
+        activeShiftRegistry.reconcile();
+    }
+
+    @Test
+    void activeShiftIsServedWithoutQueryingTheDatabase() {
+        Employee employee = createEmployee("registry");
+        ShiftResponse opened = shiftService.clockIn(employee.getId());
+
+        statistics.clear();
+        Optional<ShiftResponse> active = shiftService.getActiveShift(employee.getId());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(opened.getId(), active.orElseThrow().getId());
+        assertTrue(shiftService.getActiveShifts().stream()
+                .anyMatch(s -> s.getEmployeeId().equals(employee.getId())));
+
+        shiftService.clockOut(employee.getId());
+        assertFalse(shiftService.getActiveShift(employee.getId()).isPresent());
+    }
+
+    @Test
+    void reconcileDropsShiftsRemovedOutsideTheApplication() {
+        Employee employee = createEmployee("reconcile");
+        shiftService.clockIn(employee.getId());
+        assertTrue(activeShiftRegistry.find(employee.getId()).isPresent());
+
+        shiftRepository.deleteAllInBatch();
+        activeShiftRegistry.reconcile();
+
+        assertFalse(activeShiftRegistry.find(employee.getId()).isPresent());
+    }
+
+    @Test
+    void changesMadeWhileTheSnapshotIsReadAreKept() {
+        ShiftRepository repository = mock(ShiftRepository.class);
+        ActiveShiftRegistry registry = new ActiveShiftRegistry(repository, transactionTemplate);
+        // The snapshot still has employee 1 open and employee 3 in the registry;
+        // employee 1 clocks out, employee 2 clocks in and employee 3 is deleted
+        // while it is being read
+        registry.onShiftEvent(new ShiftEvent(ShiftEvent.Type.CLOCK_IN, open(30L, 3L)));
+        when(repository.findAllActiveShiftResponses()).thenAnswer(invocation -> {
+            registry.onShiftEvent(new ShiftEvent(ShiftEvent.Type.CLOCK_OUT, open(10L, 1L)));
+            registry.onShiftEvent(new ShiftEvent(ShiftEvent.Type.CLOCK_IN, open(20L, 2L)));
+            registry.evict(3L);
+            return List.of(open(10L, 1L), open(30L, 3L));
+        });
+
+        registry.reconcile();
+
+        assertTrue(registry.isReady());
+        assertFalse(registry.find(1L).isPresent());
+        assertEquals(20L, registry.find(2L).orElseThrow().getId());
+        assertFalse(registry.find(3L).isPresent());
+    }
+
+    @Test
+    void deletingAnEmployeeForgetsTheirOpenShift() {
+        Employee employee = createEmployee("deleted");
+        shiftService.clockIn(employee.getId());
+        assertTrue(activeShiftRegistry.find(employee.getId()).isPresent());
+
+        employeeService.deleteEmployee(employee.getId());
+
+        assertFalse(activeShiftRegistry.find(employee.getId()).isPresent());
+    }
+
+    private static ShiftResponse open(Long shiftId, Long employeeId) {
+        return ShiftResponse.builder()
+                .id(shiftId)
+                .employeeId(employeeId)
+                .clockIn(LocalDateTime.now())
+                .build();
+    }
+
+    private Employee createEmployee(String prefix) {
+        return employeeRepository.save(TestData.employee(prefix).build());
+    }
+}
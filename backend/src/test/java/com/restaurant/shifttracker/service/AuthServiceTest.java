@@ -0,0 +1,72 @@
+package com.restaurant.shifttracker.service;
+
+import com.restaurant.shifttracker.TestData;
+import com.restaurant.shifttracker.dto.LoginRequest;
+import com.restaurant.shifttracker.repository.EmployeeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "auth.throttle.max-failures-per-username=3",
+        "auth.throttle.max-failures-per-ip=5",
+        "server.tomcat.remoteip.internal-proxies=127\\.0\\.0\\.1"
+})
+class AuthServiceTest {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Test
+    void correctPasswordLogsIn() {
+        String username = createEmployee("login");
+
+        assertNotNull(authService.login(new LoginRequest(username, "secret"), "10.0.0.1").getToken());
+    }
+
+    @Test
+    void usernameIsBlockedAfterRepeatedFailuresEvenWithCorrectPassword() {
+        String username = createEmployee("locked");
+        for (int i = 0; i < 3; i++) {
+            String clientIp = "10.0.0." + (10 + i);
+            assertThrows(RuntimeException.class,
+                    () -> authService.login(new LoginRequest(username, "wrong"), clientIp));
+        }
+
+        ResponseStatusException blocked = assertThrows(ResponseStatusException.class,
+                () -> authService.login(new LoginRequest(username, "secret"), "10.0.0.99"));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, blocked.getStatusCode());
+    }
+
+    @Test
+    void clientIpIsBlockedAfterFailuresAcrossUsernames() {
+        for (int i = 0; i < 5; i++) {
+            String unknown = "stuffing-" + i + "-" + System.nanoTime();
+            assertThrows(RuntimeException.class,
+                    () -> authService.login(new LoginRequest(unknown, "guess"), "10.9.9.9"));
+        }
+        String username = createEmployee("same-ip");
+
+        ResponseStatusException blocked = assertThrows(ResponseStatusException.class,
+                () -> authService.login(new LoginRequest(username, "secret"), "10.9.9.9"));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, blocked.getStatusCode());
+    }
+
+    private String createEmployee(String prefix) {
+        return employeeRepository.save(TestData.employee(prefix)
+                .password(passwordHashingService.encode("secret"))
+                .build()).getUsername();
+    }
+}
@@ -0,0 +1,93 @@
+package com.restaurant.shifttracker.service;
+
+import com.restaurant.shifttracker.dto.EmployeeImportResponse;
+import com.restaurant.shifttracker.dto.EmployeeRequest;
+import com.restaurant.shifttracker.repository.EmployeeRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.jdbc.batch_size=50")
+class EmployeeImportTest {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void importReportsPerRowResultsAndBatchesInserts() {
+        String prefix = "bulk-" + System.nanoTime() + "-";
+        employeeService.createEmployee(new EmployeeRequest("Existing", prefix + "existing", "secret"));
+
+        List<EmployeeRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            requests.add(new EmployeeRequest("Bulk " + i, prefix + i, "pw" + i));
+        }
+        requests.add(new EmployeeRequest("Dup", prefix + "0", "pw"));
+        requests.add(new EmployeeRequest("Taken", prefix + "existing", "pw"));
+        requests.add(new EmployeeRequest("", prefix + "noname", "pw"));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        EmployeeImportResponse response = employeeService.importEmployees(requests, false);
+
+        assertEquals(60, response.getCreated());
+        assertEquals(3, response.getFailed());
+        assertEquals("Duplicate username in import", response.getRows().get(60).getError());
+        assertEquals("Username already exists", response.getRows().get(61).getError());
+        assertEquals(EmployeeImportResponse.Status.FAILED, response.getRows().get(62).getStatus());
+        assertNotNull(response.getRows().get(0).getId());
+        assertTrue(statistics.getPrepareStatementCount() < 20,
+                "expected batched inserts, saw " + statistics.getPrepareStatementCount() + " statements");
+        assertTrue(passwordHashingService.matches("pw7",
+                employeeRepository.findByUsername(prefix + "7").orElseThrow().getPassword()));
+    }
+
+    @Test
+    void upsertUpdatesExistingEmployeesFromCsv() {
+        String username = "csv-" + System.nanoTime();
+        employeeService.createEmployee(new EmployeeRequest("Before", username, "secret"));
+
+        List<EmployeeRequest> rows = EmployeeService.parseCsv(
+                "username,name,password\r\n" + username + ",\"After, Renamed\",\n" + username + "-new,New,pw\n");
+        EmployeeImportResponse response = employeeService.importEmployees(rows, true);
+
+        assertEquals(1, response.getUpdated());
+        assertEquals(1, response.getCreated());
+        assertEquals("After, Renamed", employeeRepository.findByUsername(username).orElseThrow().getName());
+        assertTrue(passwordHashingService.matches("secret",
+                employeeRepository.findByUsername(username).orElseThrow().getPassword()));
+    }
+
+    @Test
+    void singleCreateTrimsPasswordLikeImports() {
+        String username = "trim-" + System.nanoTime();
+        employeeService.createEmployee(new EmployeeRequest("Padded", username, "  secret  "));
+
+        String hash = employeeRepository.findByUsername(username).orElseThrow().getPassword();
+        assertTrue(passwordHashingService.matches("secret", hash));
+        assertFalse(passwordHashingService.matches("  secret  ", hash));
+        RuntimeException missing = assertThrows(RuntimeException.class, () -> employeeService.createEmployee(
+                new EmployeeRequest("Blank", username + "-blank", "   ")));
+        assertEquals("Password is required", missing.getMessage());
+    }
+}
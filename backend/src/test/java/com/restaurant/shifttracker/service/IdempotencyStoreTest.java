@@ -0,0 +1,105 @@
+package com.restaurant.shifttracker.service;
+
+import com.restaurant.shifttracker.TestData;
+import com.restaurant.shifttracker.dto.ShiftResponse;
+import com.restaurant.shifttracker.entity.Employee;
+import com.restaurant.shifttracker.repository.EmployeeRepository;
+import com.restaurant.shifttracker.util.RequestQueryStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class IdempotencyStoreTest {
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private ShiftService shiftService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    private Employee employee;
+
+    @BeforeEach
+    void setUp() {
+        employee = employeeRepository.save(TestData.employee("idempotent").build());
+    }
+
+    @Test
+    void retryReturnsTheOriginalResponseWithoutQueries() {
+        Long id = employee.getId();
+        ShiftResponse first = idempotencyStore.execute(id, "clock-in", "key-1", () -> shiftService.clockIn(id));
+
+        RequestQueryStats.begin();
+        ShiftResponse retry = idempotencyStore.execute(id, "clock-in", "key-1", () -> shiftService.clockIn(id));
+        RequestQueryStats.Snapshot stats = RequestQueryStats.end();
+
+        assertSame(first, retry);
+        assertEquals(0, stats.statements());
+        shiftService.clockOut(id);
+    }
+
+    @Test
+    void concurrentDuplicatesWaitForTheFirstExecution() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ShiftResponse response = ShiftResponse.builder().id(42L).build();
+
+        CompletableFuture<ShiftResponse> first = CompletableFuture.supplyAsync(() ->
+                idempotencyStore.execute(employee.getId(), "clock-out", "key-2", () -> {
+                    runs.incrementAndGet();
+                    running.countDown();
+                    await(release);
+                    return response;
+                }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        CompletableFuture<ShiftResponse> duplicate = CompletableFuture.supplyAsync(() ->
+                idempotencyStore.execute(employee.getId(), "clock-out", "key-2", () -> {
+                    runs.incrementAndGet();
+                    return response;
+                }));
+        release.countDown();
+
+        assertSame(response, first.get(5, TimeUnit.SECONDS));
+        assertSame(response, duplicate.get(5, TimeUnit.SECONDS));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void failuresAreNotRememberedAndKeysAreBoundToTheOperation() {
+        Long id = employee.getId();
+        assertThrows(RuntimeException.class,
+                () -> idempotencyStore.execute(id, "clock-out", "key-3", () -> shiftService.clockOut(id)));
+
+        ShiftResponse response = ShiftResponse.builder().id(7L).build();
+        assertSame(response, idempotencyStore.execute(id, "clock-out", "key-3", () -> response));
+
+        ResponseStatusException reused = assertThrows(ResponseStatusException.class,
+                () -> idempotencyStore.execute(id, "clock-in", "key-3", () -> response));
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, reused.getStatusCode());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.restaurant.shifttracker.service;
+
+import com.restaurant.shifttracker.TestData;
+import com.restaurant.shifttracker.dto.LaborAnalyticsResponse;
+import com.restaurant.shifttracker.entity.Employee;
+import com.restaurant.shifttracker.repository.EmployeeRepository;
+import com.restaurant.shifttracker.repository.ShiftRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.web.server.ResponseStatusException;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class LaborAnalyticsServiceTest {
+
+    // 2024-01-01 is a Monday
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2024, 1, 15, 0, 0);
+
+    @Autowired
+    private LaborAnalyticsService laborAnalyticsService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    private Employee fullTime;
+    private Employee partTime;
+
+    @BeforeEach
+    void setUp() {
+        shiftRepository.deleteAllInBatch();
+        fullTime = employee("analytics-full");
+        partTime = employee("analytics-part");
+
+        // 5 x 8h on Monday-Friday plus 4h on Saturday: 44h, 4h over the weekly threshold
+        for (int day = 0; day < 5; day++) {
+            shift(fullTime, FROM.plusDays(day).withHour(9), FROM.plusDays(day).withHour(17));
+        }
+        shift(fullTime, FROM.plusDays(5).withHour(10), FROM.plusDays(5).withHour(14));
+
+        // Started before the range, so only 00:00-02:00 counts
+        shift(partTime, FROM.minusHours(2), FROM.plusHours(2));
+        shift(partTime, FROM.withHour(12), FROM.withHour(13).withMinute(7));
+    }
+
+    @Test
+    void computesHeadcountHeatmapAndOvertime() {
+        LaborAnalyticsResponse response = laborAnalyticsService.analyze(FROM, TO);
+
+        assertEquals(15, response.getBucketMinutes());
+        assertEquals(14 * 24 * 4, response.getAverageHeadcount().length);
+
+        // Monday 00:00 and 12:00 buckets
+        assertEquals(1.0, response.getAverageHeadcount()[0]);
+        assertEquals(2.0, response.getAverageHeadcount()[48]);
+        assertEquals(2, response.getPeakHeadcount()[48]);
+        // Monday 13:00-13:15: 15 + 7 labor minutes
+        assertEquals(1.47, response.getAverageHeadcount()[52]);
+        assertEquals(2, response.getPeakHeadcount()[52]);
+        assertEquals(0, response.getPeakHeadcount()[53 + 4 * 4]);
+
+        double[][] hours = response.getLaborHoursByDayOfWeekAndHour();
+        assertEquals(1.0, hours[0][0]);
+        assertEquals(2.0, hours[0][12]);
+        assertEquals(1.12, hours[0][13]);
+        assertEquals(1.0, hours[5][10]);
+        assertEquals(0.0, hours[6][10]);
+
+        assertEquals(47.12, response.getTotalLaborHours());
+
+        assertEquals(1, response.getOvertime().size());
+        LaborAnalyticsResponse.OvertimeEntry overtime = response.getOvertime().get(0);
+        assertEquals(fullTime.getId(), overtime.getEmployeeId());
+        assertEquals(FROM.toLocalDate(), overtime.getWeekStart());
+        assertEquals(202401, overtime.getIsoWeek());
+        assertEquals(44.0, overtime.getWorkedHours());
+        assertEquals(4.0, overtime.getOvertimeHours());
+    }
+
+    @Test
+    void backToBackShiftsDoNotRaisePeak() {
+        shift(partTime, FROM.plusDays(7).withHour(9), FROM.plusDays(7).withHour(10));
+        shift(partTime, FROM.plusDays(7).withHour(10), FROM.plusDays(7).withHour(11));
+
+        LaborAnalyticsResponse response = laborAnalyticsService.analyze(FROM, TO);
+
+        int tenOClock = (7 * 24 + 10) * 4;
+        assertEquals(1, response.getPeakHeadcount()[tenOClock - 1]);
+        assertEquals(1, response.getPeakHeadcount()[tenOClock]);
+    }
+
+    @Test
+    void rejectsEmptyAndOversizedRanges() {
+        assertThrows(ResponseStatusException.class, () -> laborAnalyticsService.analyze(TO, FROM));
+        assertThrows(ResponseStatusException.class, () -> laborAnalyticsService.analyze(FROM, FROM.plusYears(2)));
+    }
+
+    private Employee employee(String username) {
+        return employeeRepository.save(TestData.employee(username).build());
+    }
+
+    private void shift(Employee employee, LocalDateTime clockIn, LocalDateTime clockOut) {
+        shiftRepository.save(TestData.openShift(employee, clockIn).clockOut(clockOut).build());
+    }
+}
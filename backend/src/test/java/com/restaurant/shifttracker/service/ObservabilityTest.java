@@ -0,0 +1,100 @@
+package com.restaurant.shifttracker.service;
+
+import com.restaurant.shifttracker.TestData;
+import com.restaurant.shifttracker.dto.ShiftHistoryResponse;
+import com.restaurant.shifttracker.entity.Employee;
+import com.restaurant.shifttracker.entity.Shift;
+import com.restaurant.shifttracker.repository.EmployeeRepository;
+import com.restaurant.shifttracker.repository.ShiftRepository;
+import com.restaurant.shifttracker.util.JwtUtil;
+import com.restaurant.shifttracker.util.RequestQueryStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ObservabilityTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+    @Autowired
+    private ShiftService shiftService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    private Employee employee;
+
+    @BeforeEach
+    void setUp() {
+        employee = employeeRepository.save(TestData.employee("observed").build());
+        for (int day = 0; day < 3; day++) {
+            LocalDateTime clockIn = FROM.plusDays(day).withHour(9);
+            shiftRepository.save(TestData.closedShift(employee, clockIn, 480).build());
+        }
+    }
+
+    @Test
+    void serviceCallsAreTimedPerMethod() {
+        shiftService.getShiftHistory(FROM, FROM.plusDays(3), null, null, 10);
+
+        Timer timer = meterRegistry.find("service.method")
+                .tag("class", ShiftService.class.getName()).tag("method", "getShiftHistory").timer();
+        assertNotNull(timer);
+        assertTrue(timer.count() >= 1);
+    }
+
+    @Test
+    void statementsAndRowsAreAttributedToTheRequest() {
+        RequestQueryStats.begin();
+        ShiftHistoryResponse page = shiftService.getShiftHistory(FROM, FROM.plusDays(3),
+                List.of(employee.getId()), null, 10);
+        RequestQueryStats.Snapshot stats = RequestQueryStats.end();
+
+        assertEquals(3, page.getShifts().size());
+        assertEquals(1, stats.statements());
+        assertEquals(3, stats.rows());
+    }
+
+    @Test
+    void entityRowsAreCountedOnce() {
+        RequestQueryStats.begin();
+        List<Shift> shifts = shiftRepository.findShiftsByEmployeeAndDateRange(
+                employee.getId(), FROM, FROM.plusDays(3));
+        RequestQueryStats.Snapshot stats = RequestQueryStats.end();
+
+        assertEquals(3, shifts.size());
+        assertEquals(3, stats.rows());
+    }
+
+    @Test
+    void tokenVerificationIsTimedOnlyOnCacheMiss() {
+        Timer verify = meterRegistry.find("auth.jwt.verify").timer();
+        assertNotNull(verify);
+        long before = verify.count();
+
+        String token = jwtUtil.generateToken("observed", "EMPLOYEE", 1L, 1L);
+        jwtUtil.parseToken(token);
+        jwtUtil.parseToken(token);
+
+        assertEquals(before + 1, verify.count());
+    }
+}
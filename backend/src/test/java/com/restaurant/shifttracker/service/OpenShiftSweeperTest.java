@@ -0,0 +1,106 @@
+package com.restaurant.shifttracker.service;
+
+import com.restaurant.shifttracker.TestData;
+import com.restaurant.shifttracker.dto.ShiftJournalEntryResponse;
+import com.restaurant.shifttracker.entity.Employee;
+import com.restaurant.shifttracker.entity.Shift;
+import com.restaurant.shifttracker.event.ShiftEvent;
+import com.restaurant.shifttracker.repository.EmployeeRepository;
+import com.restaurant.shifttracker.repository.ShiftRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+class OpenShiftSweeperTest {
+
+    // Far enough back that no other test's open shift is older than the cutoff
+    private static final LocalDateTime CLOCK_IN = LocalDateTime.of(2001, 5, 7, 8, 0);
+
+    @Autowired
+    private OpenShiftSweeper sweeper;
+
+    @Autowired
+    private ShiftService shiftService;
+
+    @Autowired
+    private WeeklyHoursSummaryService weeklyHoursSummaryService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ChangeCounters changeCounters;
+
+    @Test
+    void closesShiftsOpenPastTheMaximumLength() {
+        Employee forgetful = employee("forgetful");
+        Employee onShift = employee("on-shift");
+        Shift forgotten = openShift(forgetful, CLOCK_IN);
+        Shift current = openShift(onShift, CLOCK_IN.plusHours(10));
+        double closedBefore = meterRegistry.counter("shift.autoclose.shifts", "action", "closed").count();
+
+        OpenShiftSweeper.SweepResult result = sweeper.sweep(OpenShiftSweeper.Action.CLOSE, CLOCK_IN.plusHours(20));
+
+        assertEquals(new OpenShiftSweeper.SweepResult(1, 0), result);
+        Shift closed = shiftRepository.findById(forgotten.getId()).orElseThrow();
+        assertEquals(CLOCK_IN.plusHours(16), closed.getClockOut());
+        assertEquals(16 * 60, closed.getTotalMinutes());
+        assertEquals(Shift.Anomaly.AUTO_CLOSED, closed.getAnomaly());
+        assertNull(shiftRepository.findById(current.getId()).orElseThrow().getClockOut());
+
+        assertEquals(16 * 60, weeklyHoursSummaryService.getWeeklyTotalMinutes(forgetful.getId(), CLOCK_IN.toLocalDate()));
+        assertEquals(List.of(ShiftEvent.Type.CLOCK_OUT), shiftService.getShiftJournal(forgotten.getId()).stream()
+                .map(ShiftJournalEntryResponse::getEventType).toList());
+        assertEquals(closedBefore + 1, meterRegistry.counter("shift.autoclose.shifts", "action", "closed").count());
+
+        // No longer blocks the next clock-in
+        shiftService.clockIn(forgetful.getId());
+    }
+
+    @Test
+    void flaggedShiftsStayOpenAndAreFlaggedOnce() {
+        Employee forgetful = employee("flagged");
+        Shift forgotten = openShift(forgetful, CLOCK_IN.minusDays(7));
+        LocalDateTime now = CLOCK_IN.minusDays(6);
+        String etag = shiftsEtag();
+
+        assertEquals(new OpenShiftSweeper.SweepResult(0, 1), sweeper.sweep(OpenShiftSweeper.Action.FLAG, now));
+        Shift flagged = shiftRepository.findById(forgotten.getId()).orElseThrow();
+        assertNull(flagged.getClockOut());
+        assertEquals(Shift.Anomaly.OVERLONG, flagged.getAnomaly());
+        assertEquals(List.of(ShiftEvent.Type.FLAG), shiftService.getShiftJournal(forgotten.getId()).stream()
+                .map(ShiftJournalEntryResponse::getEventType).toList());
+        assertNotEquals(etag, shiftsEtag());
+
+        assertEquals(new OpenShiftSweeper.SweepResult(0, 0), sweeper.sweep(OpenShiftSweeper.Action.FLAG, now));
+        // Switching to close still picks up the flagged shift
+        assertEquals(new OpenShiftSweeper.SweepResult(1, 0), sweeper.sweep(OpenShiftSweeper.Action.CLOSE, now));
+        assertEquals(Shift.Anomaly.AUTO_CLOSED, shiftRepository.findById(forgotten.getId()).orElseThrow().getAnomaly());
+    }
+
+    private String shiftsEtag() {
+        return changeCounters.readWithEtag("sweep", etag -> etag, ChangeCounters.Scope.SHIFTS);
+    }
+
+    private Employee employee(String name) {
+        return employeeRepository.save(TestData.employee(name).build());
+    }
+
+    private Shift openShift(Employee employee, LocalDateTime clockIn) {
+        return shiftRepository.save(TestData.openShift(employee, clockIn).build());
+    }
+}
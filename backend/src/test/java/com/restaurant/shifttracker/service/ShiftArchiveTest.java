@@ -0,0 +1,187 @@
+package com.restaurant.shifttracker.service;
+
+import com.restaurant.shifttracker.TestData;
+import com.restaurant.shifttracker.dto.ShiftHistoryResponse;
+import com.restaurant.shifttracker.dto.ShiftJournalEntryResponse;
+import com.restaurant.shifttracker.dto.ShiftResponse;
+import com.restaurant.shifttracker.entity.Employee;
+import com.restaurant.shifttracker.entity.Shift;
+import com.restaurant.shifttracker.event.ShiftEvent;
+import com.restaurant.shifttracker.repository.EmployeeRepository;
+import com.restaurant.shifttracker.repository.ShiftRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.server.ResponseStatusException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ShiftArchiveTest {
+
+    private static final Path ARCHIVE_DIR = createArchiveDir();
+
+    @Autowired
+    private ShiftPartitionMaintenance partitionMaintenance;
+
+    @Autowired
+    private ShiftService shiftService;
+
+    @Autowired
+    private ShiftJournalReplayService replayService;
+
+    @Autowired
+    private ShiftExportService shiftExportService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Employee employee;
+
+    @DynamicPropertySource
+    static void archiveDir(DynamicPropertyRegistry registry) {
+        registry.add("shift.archive.dir", ARCHIVE_DIR::toString);
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        shiftRepository.deleteAllInBatch();
+        try (Stream<Path> files = Files.list(ARCHIVE_DIR)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        employee = employeeRepository.save(TestData.employee("archive").name("Archive employee").build());
+    }
+
+    @Test
+    void archivedMonthsLeaveTheTableAndStayInHistory() throws IOException {
+        for (int day = 10; day <= 12; day++) {
+            createShift(LocalDateTime.of(2023, 1, day, 9, 0));
+        }
+        createShift(LocalDateTime.of(2023, 2, 5, 9, 0));
+        createShift(LocalDateTime.of(2023, 2, 6, 9, 0));
+        Shift recent = createShift(LocalDateTime.of(2023, 3, 1, 9, 0));
+
+        assertEquals(5, partitionMaintenance.archiveBefore(YearMonth.of(2023, 3)));
+
+        try (Stream<Path> files = Files.list(ARCHIVE_DIR)) {
+            assertEquals(List.of("shifts-202301.csv.gz", "shifts-202302.csv.gz"),
+                    files.map(file -> file.getFileName().toString()).sorted().toList());
+        }
+        assertEquals(List.of(recent.getId()), shiftRepository.findAll().stream().map(Shift::getId).toList());
+
+        LocalDateTime from = LocalDateTime.of(2023, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2023, 4, 1, 0, 0);
+        ShiftHistoryResponse first = shiftService.getShiftHistory(from, to, List.of(employee.getId()), null, 3);
+        assertEquals(List.of(LocalDateTime.of(2023, 3, 1, 9, 0), LocalDateTime.of(2023, 2, 6, 9, 0),
+                LocalDateTime.of(2023, 2, 5, 9, 0)), clockIns(first.getShifts()));
+        assertNotNull(first.getNextCursor());
+
+        ShiftHistoryResponse second = shiftService.getShiftHistory(from, to, List.of(employee.getId()),
+                first.getNextCursor(), 3);
+        assertEquals(List.of(LocalDateTime.of(2023, 1, 12, 9, 0), LocalDateTime.of(2023, 1, 11, 9, 0),
+                LocalDateTime.of(2023, 1, 10, 9, 0)), clockIns(second.getShifts()));
+        assertEquals("Archive employee", second.getShifts().get(0).getEmployeeName());
+        assertEquals(480, second.getShifts().get(0).getTotalMinutes());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void archivedShiftsKeepTheirJournalAndAreNotReplayedBack() {
+        long before = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM shift_events", Long.class);
+        ShiftResponse shift = shiftService.clockIn(employee.getId());
+        shiftService.clockOut(employee.getId());
+        shiftService.adjustShift(shift.getId(),
+                LocalDateTime.of(2023, 1, 10, 9, 0), LocalDateTime.of(2023, 1, 10, 17, 0));
+
+        assertEquals(1, partitionMaintenance.archiveBefore(YearMonth.of(2023, 3)));
+
+        List<ShiftJournalEntryResponse> journal = shiftService.getShiftJournal(shift.getId());
+        assertEquals(List.of(ShiftEvent.Type.CLOCK_IN, ShiftEvent.Type.CLOCK_OUT, ShiftEvent.Type.ADJUST,
+                ShiftEvent.Type.ARCHIVE), journal.stream().map(ShiftJournalEntryResponse::getEventType).toList());
+        assertEquals(480, journal.get(3).getTotalMinutes());
+
+        replayService.replay(before);
+        assertFalse(shiftRepository.existsById(shift.getId()));
+    }
+
+    @Test
+    void exportRefusesRangesThatReachIntoArchivedMonths() throws IOException {
+        createShift(LocalDateTime.of(2023, 1, 10, 9, 0));
+        createShift(LocalDateTime.of(2023, 2, 6, 9, 0));
+        assertEquals(1, partitionMaintenance.archiveBefore(YearMonth.of(2023, 2)));
+
+        ResponseStatusException archived = assertThrows(ResponseStatusException.class, () -> shiftExportService
+                .exportShifts(LocalDateTime.of(2023, 1, 1, 0, 0), LocalDateTime.of(2023, 3, 1, 0, 0),
+                        ShiftExportService.Format.CSV, new ByteArrayOutputStream()));
+        assertEquals(HttpStatus.BAD_REQUEST, archived.getStatusCode());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        shiftExportService.exportShifts(LocalDateTime.of(2023, 2, 1, 0, 0), LocalDateTime.of(2023, 3, 1, 0, 0),
+                ShiftExportService.Format.CSV, out);
+        assertTrue(out.toString().contains("TOTAL," + employee.getId() + ","));
+    }
+
+    @Test
+    void openShiftsAreNeverArchived() {
+        Shift open = shiftRepository.save(TestData.openShift(employee, LocalDateTime.of(2023, 1, 10, 9, 0)).build());
+
+        assertEquals(0, partitionMaintenance.archiveBefore(YearMonth.of(2023, 3)));
+        assertEquals(List.of(open.getId()), shiftRepository.findAll().stream().map(Shift::getId).toList());
+    }
+
+    @Test
+    void futurePartitionsAreSplitOffTheCatchAll() {
+        YearMonth current = YearMonth.of(2025, 11);
+
+        assertEquals(List.of(YearMonth.of(2026, 1), YearMonth.of(2026, 2)),
+                ShiftPartitionMaintenance.monthsToAdd(List.of(YearMonth.of(2025, 12)), current, 3));
+        assertEquals(List.of(), ShiftPartitionMaintenance.monthsToAdd(List.of(YearMonth.of(2026, 2)), current, 3));
+        assertEquals("ALTER TABLE shifts REORGANIZE PARTITION p_future INTO ("
+                        + "PARTITION p202601 VALUES LESS THAN (202602), "
+                        + "PARTITION p_future VALUES LESS THAN MAXVALUE)",
+                ShiftPartitionMaintenance.reorganizeSql(List.of(YearMonth.of(2026, 1))));
+    }
+
+    private Shift createShift(LocalDateTime clockIn) {
+        return shiftRepository.save(TestData.closedShift(employee, clockIn, 480).build());
+    }
+
+    private static List<LocalDateTime> clockIns(List<ShiftResponse> shifts) {
+        return new ArrayList<>(shifts.stream().map(ShiftResponse::getClockIn).toList());
+    }
+
+    private static Path createArchiveDir() {
+        try {
+            return Files.createTempDirectory("shift-archive-test");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.restaurant.shifttracker.service;
+
+import com.restaurant.shifttracker.TestData;
+import com.restaurant.shifttracker.entity.Employee;
+import com.restaurant.shifttracker.repository.EmployeeRepository;
+import com.restaurant.shifttracker.repository.ShiftRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ShiftClockInConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final int ROUNDS = 5;
+
+    @Autowired
+    private ShiftService shiftService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    @Test
+    void concurrentClockInsOpenOnlyOneShift() throws Exception {
+        Employee employee = employeeRepository.save(TestData.employee("double-tap").build());
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        for (int round = 0; round < ROUNDS; round++) {
+            AtomicInteger succeeded = new AtomicInteger();
+            AtomicInteger rejected = new AtomicInteger();
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        shiftService.clockIn(employee.getId());
+                        succeeded.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        assertEquals("Already clocked in", e.getMessage());
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            assertEquals(1, succeeded.get());
+            assertEquals(THREADS - 1, rejected.get());
+            assertTrue(shiftRepository.findActiveShiftByEmployeeId(employee.getId()).isPresent());
+            shiftService.clockOut(employee.getId());
+        }
+        executor.shutdown();
+    }
+}
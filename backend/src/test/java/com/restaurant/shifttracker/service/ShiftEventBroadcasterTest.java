@@ -0,0 +1,147 @@
+package com.restaurant.shifttracker.service;
+
+import com.restaurant.shifttracker.TestData;
+import com.restaurant.shifttracker.entity.Employee;
+import com.restaurant.shifttracker.repository.EmployeeRepository;
+import com.restaurant.shifttracker.util.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ShiftEventBroadcasterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ShiftService shiftService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ShiftEventBroadcaster broadcaster;
+
+    @Test
+    void employeeStreamReceivesOwnCommittedEventsOnly() throws Exception {
+        Employee subscriber = createEmployee("subscriber");
+        Employee other = createEmployee("bystander");
+        String token = jwtUtil.generateToken(subscriber.getUsername(), "EMPLOYEE", subscriber.getId(),
+                subscriber.getLocationId());
+
+        MvcResult result = mockMvc.perform(get("/api/shifts/events")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        shiftService.clockIn(other.getId());
+        shiftService.clockIn(subscriber.getId());
+        shiftService.clockOut(subscriber.getId());
+
+        String body = awaitContent(result.getResponse(), "event:clock-out");
+        assertTrue(body.startsWith("event:snapshot"));
+        assertTrue(body.contains("event:clock-in"));
+        assertFalse(body.contains(other.getName()));
+    }
+
+    @Test
+    void stalledSubscribersDoNotHoldUpOthersAndAreDropped() throws Exception {
+        Employee employee = createEmployee("watched");
+        int before = broadcaster.getSubscriberCount();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch stalled = new CountDownLatch(8);
+        for (int i = 0; i < 8; i++) {
+            broadcaster.subscribe(employee.getId(), new StalledEmitter(stalled, release));
+        }
+        RecordingEmitter live = new RecordingEmitter();
+        broadcaster.subscribe(employee.getId(), live);
+        assertTrue(stalled.await(5, TimeUnit.SECONDS));
+
+        try {
+            shiftService.clockIn(employee.getId());
+            long deadline = System.currentTimeMillis() + 5000;
+            while (live.sent.stream().noneMatch(s -> s.contains("event:clock-in"))
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertTrue(live.sent.stream().anyMatch(s -> s.contains("event:clock-in")), live.sent.toString());
+
+            broadcaster.dropStalledSubscribers(0);
+            assertEquals(before + 1, broadcaster.getSubscriberCount());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    /** Never returns from a write until released, like a client that stopped reading. */
+    private static class StalledEmitter extends SseEmitter {
+
+        private final CountDownLatch stalled;
+        private final CountDownLatch release;
+
+        StalledEmitter(CountDownLatch stalled, CountDownLatch release) {
+            this.stalled = stalled;
+            this.release = release;
+        }
+
+        @Override
+        public void send(Set<ResponseBodyEmitter.DataWithMediaType> items) throws IOException {
+            stalled.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> sent = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void send(Set<ResponseBodyEmitter.DataWithMediaType> items) {
+            sent.add(items.stream().map(item -> String.valueOf(item.getData())).collect(Collectors.joining()));
+        }
+    }
+
+    private String awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String body = response.getContentAsString();
+        while (!body.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            body = response.getContentAsString();
+        }
+        assertTrue(body.contains(expected), body);
+        return body;
+    }
+
+    private Employee createEmployee(String prefix) {
+        return employeeRepository.save(TestData.employee(prefix).build());
+    }
+}
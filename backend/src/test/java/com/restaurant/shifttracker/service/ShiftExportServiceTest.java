@@ -0,0 +1,165 @@
+package com.restaurant.shifttracker.service;
+
+import com.restaurant.shifttracker.TestData;
+import com.restaurant.shifttracker.entity.Employee;
+import com.restaurant.shifttracker.repository.EmployeeRepository;
+import com.restaurant.shifttracker.repository.ShiftRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ShiftExportServiceTest {
+
+    private static final int EMPLOYEES = 10;
+    private static final int SHIFTS_PER_EMPLOYEE = 3_000;
+    // Rows inserted with plain JDBC take ids well clear of the Hibernate sequence.
+    private static final long RAW_ID_BASE = 1_000_000_000L;
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Autowired
+    private ShiftExportService shiftExportService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        shiftRepository.deleteAllInBatch();
+        for (int e = 0; e < EMPLOYEES; e++) {
+            // A comma in the name exercises CSV quoting
+            Employee employee = employeeRepository.save(TestData.employee("export-" + e)
+                    .name("export, employee " + e)
+                    .build());
+            List<Object[]> rows = new ArrayList<>(SHIFTS_PER_EMPLOYEE);
+            for (int i = 0; i < SHIFTS_PER_EMPLOYEE; i++) {
+                LocalDateTime clockIn = FROM.plusHours(i);
+                rows.add(new Object[]{RAW_ID_BASE + (long) e * SHIFTS_PER_EMPLOYEE + i, employee.getId(),
+                        employee.getLocationId(), Timestamp.valueOf(clockIn), Timestamp.valueOf(clockIn.plusMinutes(30)), 30});
+            }
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO shifts (id, employee_id, location_id, clock_in, clock_out, total_minutes) VALUES (?, ?, ?, ?, ?, ?)", rows);
+        }
+    }
+
+    @Test
+    void csvExportEmitsShiftAndTotalRows() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        shiftExportService.exportShifts(FROM, TO, ShiftExportService.Format.CSV, out);
+
+        String[] lines = out.toString().split("\n");
+        long totals = Arrays.stream(lines).filter(l -> l.startsWith("TOTAL,")).count();
+        assertEquals(1 + EMPLOYEES * SHIFTS_PER_EMPLOYEE + EMPLOYEES, lines.length);
+        assertEquals(EMPLOYEES, totals);
+        assertTrue(lines[lines.length - 1].contains("\"export, employee"));
+        assertTrue(lines[lines.length - 1].endsWith(",1500.00," + SHIFTS_PER_EMPLOYEE));
+    }
+
+    @Test
+    void csvQuotesNamesWithLineBreaks() throws Exception {
+        Employee employee = employeeRepository.save(TestData.employee("export-cr").name("carriage\rreturn").build());
+        shiftRepository.save(TestData.closedShift(employee, TO.plusDays(1), 60).build());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        shiftExportService.exportShifts(TO, TO.plusMonths(1), ShiftExportService.Format.CSV, out);
+
+        String csv = out.toString();
+        assertTrue(csv.contains("SHIFT," + employee.getId() + ",\"carriage\rreturn\","), csv);
+        assertTrue(csv.contains("TOTAL," + employee.getId() + ",\"carriage\rreturn\","), csv);
+    }
+
+    @Test
+    void csvNeutralisesNamesThatLookLikeFormulas() throws Exception {
+        Employee employee = employeeRepository.save(TestData.employee("export-formula")
+                .name("=HYPERLINK(\"http://x\")").build());
+        Employee plain = employeeRepository.save(TestData.employee("export-dash").name("-Dash").build());
+        shiftRepository.save(TestData.closedShift(employee, TO.plusDays(2), 60).build());
+        shiftRepository.save(TestData.closedShift(plain, TO.plusDays(2), 60).build());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        shiftExportService.exportShifts(TO, TO.plusMonths(1), ShiftExportService.Format.CSV, out);
+
+        String csv = out.toString();
+        assertTrue(csv.contains("SHIFT," + employee.getId() + ",\"'=HYPERLINK(\"\"http://x\"\")\","), csv);
+        assertTrue(csv.contains("TOTAL," + plain.getId() + ",'-Dash,"), csv);
+    }
+
+    @Test
+    void exportKeepsPersistenceContextAndHeapBounded() throws Exception {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long baseline = runtime.totalMemory() - runtime.freeMemory();
+        SamplingOutputStream out = new SamplingOutputStream();
+
+        shiftExportService.exportShifts(FROM, TO, ShiftExportService.Format.NDJSON, out);
+
+        assertTrue(out.samples > 10, "export should have been sampled while streaming");
+        assertTrue(out.maxManagedEntities <= 2,
+                "managed entities grew to " + out.maxManagedEntities + " while streaming");
+        long growth = out.maxUsedHeap - baseline;
+        assertTrue(growth < 48L * 1024 * 1024, "heap grew by " + (growth >> 20) + " MB during export");
+    }
+
+    /**
+     * Discards output and, every 256 KB, records how many entities the current
+     * persistence context holds and how much heap is live after a GC.
+     */
+    private class SamplingOutputStream extends OutputStream {
+
+        private static final int SAMPLE_EVERY = 256 * 1024;
+
+        private long written;
+        private int samples;
+        private int maxManagedEntities;
+        private long maxUsedHeap;
+
+        @Override
+        public void write(int b) {
+            advance(1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            advance(len);
+        }
+
+        private void advance(int len) {
+            long before = written / SAMPLE_EVERY;
+            written += len;
+            if (written / SAMPLE_EVERY != before) {
+                samples++;
+                maxManagedEntities = Math.max(maxManagedEntities,
+                        entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+                if (samples % 8 == 0) {
+                    System.gc();
+                    Runtime runtime = Runtime.getRuntime();
+                    maxUsedHeap = Math.max(maxUsedHeap, runtime.totalMemory() - runtime.freeMemory());
+                }
+            }
+        }
+    }
+}
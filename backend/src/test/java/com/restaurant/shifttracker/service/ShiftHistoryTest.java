@@ -0,0 +1,88 @@
+package com.restaurant.shifttracker.service;
+
+import com.restaurant.shifttracker.TestData;
+import com.restaurant.shifttracker.dto.ShiftHistoryResponse;
+import com.restaurant.shifttracker.dto.ShiftResponse;
+import com.restaurant.shifttracker.entity.Employee;
+import com.restaurant.shifttracker.repository.EmployeeRepository;
+import com.restaurant.shifttracker.repository.ShiftRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ShiftHistoryTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2025, 2, 1, 0, 0);
+
+    @Autowired
+    private ShiftService shiftService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    private Employee first;
+    private Employee second;
+
+    @BeforeEach
+    void setUp() {
+        shiftRepository.deleteAllInBatch();
+        first = createEmployee("history-a");
+        second = createEmployee("history-b");
+        for (int day = 0; day < 10; day++) {
+            // Two shifts share each clock-in time so the id tie-breaker is exercised.
+            createShift(first, FROM.plusDays(day).withHour(9));
+            createShift(second, FROM.plusDays(day).withHour(9));
+        }
+        createShift(first, TO);
+    }
+
+    @Test
+    void pagesCoverRangeExactlyOnceInDescendingOrder() {
+        List<ShiftResponse> all = new ArrayList<>();
+        String cursor = null;
+        do {
+            ShiftHistoryResponse page = shiftService.getShiftHistory(FROM, TO, null, cursor, 3);
+            all.addAll(page.getShifts());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(20, all.size());
+        assertEquals(20, all.stream().map(ShiftResponse::getId).distinct().count());
+        for (int i = 1; i < all.size(); i++) {
+            ShiftResponse previous = all.get(i - 1);
+            ShiftResponse current = all.get(i);
+            assertTrue(current.getClockIn().isBefore(previous.getClockIn())
+                    || (current.getClockIn().equals(previous.getClockIn()) && current.getId() < previous.getId()));
+        }
+    }
+
+    @Test
+    void employeeFilterRestrictsRows() {
+        ShiftHistoryResponse page = shiftService.getShiftHistory(FROM, TO, List.of(second.getId()), null, 50);
+
+        assertEquals(10, page.getShifts().size());
+        assertTrue(page.getShifts().stream().allMatch(s -> s.getEmployeeId().equals(second.getId())));
+        assertNull(page.getNextCursor());
+    }
+
+    private Employee createEmployee(String prefix) {
+        return employeeRepository.save(TestData.employee(prefix).build());
+    }
+
+    private void createShift(Employee employee, LocalDateTime clockIn) {
+        shiftRepository.save(TestData.openShift(employee, clockIn).clockOut(clockIn.plusHours(8)).build());
+    }
+}
@@ -0,0 +1,203 @@
+package com.restaurant.shifttracker.service;
+
+import com.restaurant.shifttracker.TestData;
+import com.restaurant.shifttracker.dto.ShiftJournalEntryResponse;
+import com.restaurant.shifttracker.dto.ShiftResponse;
+import com.restaurant.shifttracker.entity.Employee;
+import com.restaurant.shifttracker.entity.Shift;
+import com.restaurant.shifttracker.event.ShiftEvent;
+import com.restaurant.shifttracker.repository.EmployeeRepository;
+import com.restaurant.shifttracker.repository.ShiftRepository;
+import com.restaurant.shifttracker.util.JwtPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class ShiftJournalTest {
+
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2024, 3, 4, 9, 0);
+
+    @Autowired
+    private ShiftService shiftService;
+
+    @Autowired
+    private ShiftJournalReplayService replayService;
+
+    @Autowired
+    private WeeklyHoursSummaryService weeklyHoursSummaryService;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private OpenShiftSweeper openShiftSweeper;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Employee employee;
+
+    @BeforeEach
+    void setUp() {
+        employee = employeeRepository.save(TestData.employee("journal").build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void clockInAndOutAreAppendedToTheJournal() {
+        ShiftResponse shift = shiftService.clockIn(employee.getId());
+        shiftService.clockOut(employee.getId());
+
+        List<ShiftJournalEntryResponse> journal = shiftService.getShiftJournal(shift.getId());
+        assertEquals(List.of(ShiftEvent.Type.CLOCK_IN, ShiftEvent.Type.CLOCK_OUT),
+                journal.stream().map(ShiftJournalEntryResponse::getEventType).toList());
+        assertEquals(null, journal.get(0).getClockOut());
+        assertEquals(journal.get(0).getClockIn(), journal.get(1).getClockIn());
+    }
+
+    @Test
+    void adjustmentUpdatesTheShiftAndBothWeeks() {
+        ShiftResponse shift = shiftService.clockIn(employee.getId());
+        shiftService.clockOut(employee.getId());
+
+        shiftService.adjustShift(shift.getId(), MONDAY, MONDAY.plusHours(8));
+
+        Shift adjusted = shiftRepository.findById(shift.getId()).orElseThrow();
+        assertEquals(MONDAY, adjusted.getClockIn());
+        assertEquals(480, adjusted.getTotalMinutes());
+        assertEquals(480, weeklyHoursSummaryService.getWeeklyTotalMinutes(employee.getId(), MONDAY.toLocalDate()));
+        assertEquals(0, weeklyHoursSummaryService.getWeeklyTotalMinutes(employee.getId(), LocalDate.now()));
+        assertEquals(ShiftEvent.Type.ADJUST, shiftService.getShiftJournal(shift.getId()).get(2).getEventType());
+    }
+
+    @Test
+    void adjustmentRejectsStaleAndInvalidTimes() {
+        ShiftResponse shift = shiftService.clockIn(employee.getId());
+
+        // Expected times that no longer match: the compare-and-set writes nothing
+        assertEquals(Integer.valueOf(0), transactionTemplate.execute(status -> shiftRepository.adjustTimes(shift.getId(),
+                MONDAY, MONDAY, MONDAY, MONDAY.plusHours(1), 60, LocalDateTime.now())));
+        ResponseStatusException backwards = assertThrows(ResponseStatusException.class,
+                () -> shiftService.adjustShift(shift.getId(), MONDAY, MONDAY.minusHours(1)));
+        assertEquals(HttpStatus.BAD_REQUEST, backwards.getStatusCode());
+
+        shiftService.clockOut(employee.getId());
+    }
+
+    @Test
+    void replayRebuildsProjectionsFromTheJournal() {
+        long before = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM shift_events", Long.class);
+        ShiftResponse first = shiftService.clockIn(employee.getId());
+        shiftService.clockOut(employee.getId());
+        shiftService.adjustShift(first.getId(), MONDAY, MONDAY.plusHours(8));
+        ShiftResponse second = shiftService.clockIn(employee.getId());
+        shiftService.clockOut(employee.getId());
+        shiftService.adjustShift(second.getId(), MONDAY.plusDays(1), MONDAY.plusDays(1).plusHours(3));
+
+        // Lose one projection row and corrupt the other, and the weekly total with them
+        jdbcTemplate.update("DELETE FROM shifts WHERE id = ?", first.getId());
+        jdbcTemplate.update("UPDATE shifts SET total_minutes = 1 WHERE id = ?", second.getId());
+        jdbcTemplate.update("DELETE FROM weekly_hours_summary WHERE employee_id = ?", employee.getId());
+
+        ShiftJournalReplayService.ReplayResult result = replayService.replay(before);
+
+        assertEquals(6, result.events());
+        assertEquals(2, result.shifts());
+        assertEquals(480, shiftRepository.findById(first.getId()).orElseThrow().getTotalMinutes());
+        assertEquals(180, shiftRepository.findById(second.getId()).orElseThrow().getTotalMinutes());
+        assertEquals(660, weeklyHoursSummaryService.getWeeklyTotalMinutes(employee.getId(), MONDAY.toLocalDate()));
+        assertFalse(shiftService.getShiftJournal(second.getId()).isEmpty());
+    }
+
+    @Test
+    void deletedEmployeesShiftsKeepTheirJournalAndAreNotReplayedBack() {
+        long before = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM shift_events", Long.class);
+        ShiftResponse shift = shiftService.clockIn(employee.getId());
+        shiftService.clockOut(employee.getId());
+
+        employeeService.deleteEmployee(employee.getId());
+
+        assertEquals(List.of(ShiftEvent.Type.CLOCK_IN, ShiftEvent.Type.CLOCK_OUT, ShiftEvent.Type.DELETE),
+                shiftService.getShiftJournal(shift.getId()).stream()
+                        .map(ShiftJournalEntryResponse::getEventType).toList());
+        assertEquals(0, replayService.replay(before).shifts());
+        assertFalse(shiftRepository.existsById(shift.getId()));
+    }
+
+    @Test
+    void replayKeepsTheAnomalyTheSweeperMarked() {
+        // Long before any other test's open shift, so the sweep only sees this one
+        LocalDateTime clockIn = LocalDateTime.of(1999, 1, 4, 8, 0);
+        Shift forgotten = shiftRepository.save(TestData.openShift(employee, clockIn).build());
+        long before = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM shift_events", Long.class);
+        openShiftSweeper.sweep(OpenShiftSweeper.Action.FLAG, clockIn.plusDays(1));
+
+        List<ShiftJournalEntryResponse> journal = shiftService.getShiftJournal(forgotten.getId());
+        assertEquals(ShiftEvent.Type.FLAG, journal.get(0).getEventType());
+        assertEquals(Shift.Anomaly.OVERLONG, journal.get(0).getAnomaly());
+
+        jdbcTemplate.update("UPDATE shifts SET anomaly = NULL WHERE id = ?", forgotten.getId());
+        replayService.replay(before);
+
+        assertEquals(Shift.Anomaly.OVERLONG, shiftRepository.findById(forgotten.getId()).orElseThrow().getAnomaly());
+        shiftService.clockOut(employee.getId());
+    }
+
+    @Test
+    void replayIsRefusedToAnAdminScopedToOneLocation() {
+        JwtPrincipal principal = new JwtPrincipal("admin-2", "ADMIN", -1L, 2L, Instant.now().plusSeconds(60));
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                principal, null, List.of(new SimpleGrantedAuthority("ADMIN"))));
+
+        ResponseStatusException refused = assertThrows(ResponseStatusException.class, () -> replayService.replay(0));
+        assertEquals(HttpStatus.FORBIDDEN, refused.getStatusCode());
+    }
+
+    @Test
+    void replaySkipsAnOpenShiftThatWouldBeASecondOpenRow() {
+        long before = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM shift_events", Long.class);
+        ShiftResponse lost = shiftService.clockIn(employee.getId());
+        // The row goes, so the employee can clock in again; the journal still has the first one open
+        jdbcTemplate.update("DELETE FROM shifts WHERE id = ?", lost.getId());
+        ShiftResponse current = shiftService.clockIn(employee.getId());
+
+        ShiftJournalReplayService.ReplayResult result = replayService.replay(before);
+
+        assertEquals(1, result.shifts());
+        assertFalse(shiftRepository.existsById(lost.getId()));
+        assertNull(shiftRepository.findById(current.getId()).orElseThrow().getClockOut());
+        shiftService.clockOut(employee.getId());
+    }
+}
@@ -0,0 +1,236 @@
+package com.restaurant.shifttracker.service;
+
+import com.restaurant.shifttracker.TestData;
+import com.restaurant.shifttracker.dto.EmployeeRequest;
+import com.restaurant.shifttracker.dto.WeeklyHoursResponse;
+import com.restaurant.shifttracker.entity.Employee;
+import com.restaurant.shifttracker.repository.EmployeeRepository;
+import com.restaurant.shifttracker.repository.ShiftRepository;
+import com.restaurant.shifttracker.repository.WeeklyHoursSummaryRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class ShiftServiceQueryCountTest {
+
+    @Autowired
+    private ShiftService shiftService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    @Autowired
+    private WeeklyHoursSummaryService weeklyHoursSummaryService;
+
+    @Autowired
+    private WeeklyHoursSummaryRepository summaryRepository;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        shiftRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void weeklyReportQueryCountDoesNotGrowWithEmployees() {
+        createEmployeesWithShifts("small", 3);
+        long smallCount = countStatements(() -> shiftService.getAllEmployeesWeeklyHours());
+
+        createEmployeesWithShifts("large", 12);
+        long largeCount = countStatements(() -> shiftService.getAllEmployeesWeeklyHours());
+
+        assertEquals(smallCount, largeCount,
+                "getAllEmployeesWeeklyHours must not issue a statement per employee");
+    }
+
+    @Test
+    void employeeWeeklyHoursQueryCountDoesNotGrowWithShifts() {
+        Employee employee = createEmployeesWithShifts("single", 1).get(0);
+        shiftService.getWeeklyHours(employee.getId());
+        long fewShifts = countStatements(() -> shiftService.getWeeklyHours(employee.getId()));
+
+        for (int i = 0; i < 10; i++) {
+            createShift(employee, i + 10);
+        }
+        long manyShifts = countStatements(() -> shiftService.getWeeklyHours(employee.getId()));
+
+        assertEquals(fewShifts, manyShifts);
+    }
+
+    @Test
+    void entityQueriesFetchTheEmployeeForMapping() {
+        createEmployeesWithShifts("fetch", 4);
+        LocalDateTime from = LocalDateTime.now().minusWeeks(2);
+        LocalDateTime to = LocalDateTime.now().plusWeeks(1);
+
+        long statements = countStatements(() -> assertEquals(8, shiftRepository.findAllShiftsByDateRange(from, to)
+                .stream().map(ShiftService::mapToResponse).toList().size()));
+
+        assertEquals(1, statements, "mapping the shifts must not load employees one by one");
+    }
+
+    @Test
+    void weeklyReportWithoutShiftsUsesSummaryOnly() {
+        createEmployeesWithShifts("summary", 3);
+        long fewEmployees = countStatements(() -> shiftService.getAllEmployeesWeeklyHours(false));
+
+        createEmployeesWithShifts("summary-more", 9);
+        long manyEmployees = countStatements(() -> shiftService.getAllEmployeesWeeklyHours(false));
+
+        assertEquals(fewEmployees, manyEmployees);
+    }
+
+    @Test
+    void rebuildRestoresSummaryFromShifts() {
+        createEmployeesWithShifts("rebuild", 2);
+        weeklyHoursSummaryService.rebuildWeeks(1);
+
+        shiftService.getAllEmployeesWeeklyHours(false).stream()
+                .filter(r -> r.getEmployeeName().startsWith("rebuild"))
+                .forEach(r -> assertEquals(0, new BigDecimal("3.00").compareTo(r.getTotalWeeklyHours())));
+    }
+
+    @Test
+    void emptySummaryIsBackfilledFromShifts() {
+        createEmployeesWithShifts("backfill", 1);
+        summaryRepository.deleteAll();
+
+        weeklyHoursSummaryService.backfillIfEmpty();
+
+        shiftService.getAllEmployeesWeeklyHours(false).stream()
+                .filter(r -> r.getEmployeeName().startsWith("backfill"))
+                .forEach(r -> assertEquals(0, new BigDecimal("3.00").compareTo(r.getTotalWeeklyHours())));
+    }
+
+    @Test
+    void weeklyReportTotalsMatchShifts() {
+        createEmployeesWithShifts("totals", 2);
+
+        List<WeeklyHoursResponse> report = shiftService.getAllEmployeesWeeklyHours();
+
+        report.stream()
+                .filter(r -> r.getEmployeeName().startsWith("totals"))
+                .forEach(r -> {
+                    assertEquals(2, r.getShifts().size());
+                    assertEquals(0, new BigDecimal("3.00").compareTo(r.getTotalWeeklyHours()));
+                });
+    }
+
+    @Test
+    void weeklyTotalsAreSummedInMinutesWithoutRoundingDrift() {
+        Employee employee = createEmployeesWithShifts("minutes", 1).get(0);
+        LocalDateTime monday = LocalDateTime.now()
+                .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                .withHour(6).withMinute(0).withSecond(0).withNano(0);
+        // 20 minutes is 0.33h when rounded per shift; three of them must still total 1.00h
+        for (int i = 0; i < 3; i++) {
+            weeklyHoursSummaryService.recordClosedShift(employee.getId(), monday.plusHours(i), 20);
+        }
+
+        shiftService.getAllEmployeesWeeklyHours(false).stream()
+                .filter(r -> r.getEmployeeId().equals(employee.getId()))
+                .forEach(r -> assertEquals(0, new BigDecimal("4.00").compareTo(r.getTotalWeeklyHours())));
+    }
+
+    @Test
+    void concurrentFirstClockOutsOfAWeekAreAllCounted() throws Exception {
+        Employee employee = employeeRepository.save(TestData.employee("first-week").build());
+        LocalDateTime clockIn = LocalDateTime.now().minusWeeks(5);
+        int closes = 8;
+
+        ExecutorService executor = Executors.newFixedThreadPool(closes);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < closes; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                weeklyHoursSummaryService.recordClosedShift(employee.getId(), clockIn, 30);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(closes * 30L, weeklyHoursSummaryService.getWeeklyTotalMinutes(employee.getId(), clockIn.toLocalDate()));
+    }
+
+    @Test
+    void clockInIssuesSingleStatementOnceEmployeeIsCached() {
+        Employee employee = createEmployeesWithShifts("cached", 1).get(0);
+        shiftService.clockIn(employee.getId());
+        shiftService.clockOut(employee.getId());
+
+        long clockIn = countStatements(() -> shiftService.clockIn(employee.getId()));
+
+        assertEquals(1, clockIn, "clock-in should be a single insert");
+    }
+
+    @Test
+    void employeeUpdateEvictsCachedLookup() {
+        Employee employee = createEmployeesWithShifts("evict", 1).get(0);
+        shiftService.getWeeklyHours(employee.getId(), false);
+
+        employeeService.updateEmployee(employee.getId(),
+                new EmployeeRequest("renamed employee", employee.getUsername(), null));
+
+        assertEquals("renamed employee",
+                shiftService.getWeeklyHours(employee.getId(), false).getEmployeeName());
+    }
+
+    private long countStatements(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private List<Employee> createEmployeesWithShifts(String prefix, int count) {
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Employee employee = employeeRepository.save(TestData.employee(prefix + "-" + i).build());
+            createShift(employee, 1);
+            createShift(employee, 2);
+            employees.add(employee);
+        }
+        return employees;
+    }
+
+    private void createShift(Employee employee, int hourOffset) {
+        LocalDateTime clockIn = LocalDateTime.now()
+                .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                .withHour(0).withMinute(0).withSecond(0).withNano(0)
+                .plusHours(hourOffset);
+        shiftRepository.save(TestData.closedShift(employee, clockIn, 90).build());
+        weeklyHoursSummaryService.recordClosedShift(employee.getId(), clockIn, 90);
+    }
+}
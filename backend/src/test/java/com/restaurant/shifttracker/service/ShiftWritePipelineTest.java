@@ -0,0 +1,187 @@
+package com.restaurant.shifttracker.service;
+
+import com.restaurant.shifttracker.TestData;
+import com.restaurant.shifttracker.dto.ShiftResponse;
+import com.restaurant.shifttracker.entity.Employee;
+import com.restaurant.shifttracker.event.ShiftEvent;
+import com.restaurant.shifttracker.repository.EmployeeRepository;
+import com.restaurant.shifttracker.repository.ShiftRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A wide batching window, so commands issued back to back share a batch
+@SpringBootTest(properties = {"shift.write-pipeline.enabled=true", "shift.write-pipeline.max-delay-ms=200",
+        "shift.write-pipeline.timeout-ms=3000"})
+class ShiftWritePipelineTest {
+
+    // Holds the worker inside a batch that clocks in this employee
+    private static volatile Long heldEmployeeId;
+    private static final CountDownLatch held = new CountDownLatch(1);
+    private static final CountDownLatch release = new CountDownLatch(1);
+
+    @TestConfiguration
+    static class WorkerGate {
+        @EventListener
+        void hold(ShiftEvent event) throws InterruptedException {
+            if (event.shift().getEmployeeId().equals(heldEmployeeId)) {
+                held.countDown();
+                release.await(10, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    @Autowired
+    private ShiftService shiftService;
+
+    @Autowired
+    private ShiftWritePipeline shiftWritePipeline;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void burstOfClockInsOpensExactlyOneShiftPerEmployee() throws Exception {
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            employees.add(employeeRepository.save(TestData.employee("pipeline-" + i).build()));
+        }
+
+        AtomicInteger alreadyClockedIn = new AtomicInteger();
+        ConcurrentHashMap<Long, Long> shiftIds = new ConcurrentHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        List<Future<?>> futures = new ArrayList<>();
+        // Every employee taps clock-in twice.
+        for (int attempt = 0; attempt < 2; attempt++) {
+            for (Employee employee : employees) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        shiftIds.put(employee.getId(), shiftService.clockIn(employee.getId()).getId());
+                    } catch (RuntimeException e) {
+                        assertEquals("Already clocked in", e.getMessage());
+                        alreadyClockedIn.incrementAndGet();
+                    }
+                }));
+            }
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(employees.size(), alreadyClockedIn.get());
+        assertEquals(employees.size(), shiftIds.size());
+        for (Employee employee : employees) {
+            assertNotNull(shiftRepository.findActiveShiftByEmployeeId(employee.getId()).orElse(null));
+            assertEquals(shiftIds.get(employee.getId()), shiftService.clockOut(employee.getId()).getId());
+        }
+    }
+
+    @Test
+    void clockInAndOutInOneBatchAnswerEachCallerWithItsOwnState() throws Exception {
+        Employee employee = employeeRepository.save(TestData.employee("pipeline-quick").build());
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<ShiftResponse> clockIn = executor.submit(() -> shiftService.clockIn(employee.getId()));
+        Thread.sleep(20);
+        Future<ShiftResponse> clockOut = executor.submit(() -> shiftService.clockOut(employee.getId()));
+        ShiftResponse opened = clockIn.get();
+        ShiftResponse closed = clockOut.get();
+        executor.shutdown();
+
+        assertEquals(opened.getId(), closed.getId());
+        assertNull(opened.getClockOut());
+        assertNull(opened.getTotalMinutes());
+        assertNotNull(closed.getClockOut());
+    }
+
+    @Test
+    void clockOutThenClockInInOneBatchCommitsTogether() throws Exception {
+        Employee employee = employeeRepository.save(TestData.employee("pipeline-turnaround").build());
+        ShiftResponse first = shiftService.clockIn(employee.getId());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long failedBefore = statistics.getTransactionCount() - statistics.getSuccessfulTransactionCount();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<ShiftResponse> clockOut = executor.submit(() -> shiftService.clockOut(employee.getId()));
+        Thread.sleep(20);
+        Future<ShiftResponse> clockIn = executor.submit(() -> shiftService.clockIn(employee.getId()));
+        ShiftResponse closed = clockOut.get();
+        ShiftResponse second = clockIn.get();
+        executor.shutdown();
+
+        assertEquals(first.getId(), closed.getId());
+        assertNotNull(closed.getClockOut());
+        assertNotEquals(first.getId(), second.getId());
+        assertNull(second.getClockOut());
+        // The clock-out's UPDATE must reach uk_shift_open before the INSERT, or the batch fails and is retried
+        assertEquals(failedBefore, statistics.getTransactionCount() - statistics.getSuccessfulTransactionCount());
+        shiftService.clockOut(employee.getId());
+    }
+
+    @Test
+    void timedOutCommandIsWithdrawnOnlyIfStillQueued() throws Exception {
+        Employee busy = employeeRepository.save(TestData.employee("pipeline-busy").build());
+        Employee waiting = employeeRepository.save(TestData.employee("pipeline-waiting").build());
+        heldEmployeeId = busy.getId();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<ShiftResponse> busyClockIn = executor.submit(() -> shiftService.clockIn(busy.getId()));
+        try {
+            assertTrue(held.await(5, TimeUnit.SECONDS));
+            ResponseStatusException queued = assertThrows(ResponseStatusException.class,
+                    () -> shiftService.clockIn(waiting.getId()));
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, queued.getStatusCode());
+        } finally {
+            heldEmployeeId = null;
+            release.countDown();
+        }
+        // The held command timed out too, but it was already being applied
+        ExecutionException inFlight = assertThrows(ExecutionException.class, busyClockIn::get);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ((ResponseStatusException) inFlight.getCause()).getStatusCode());
+        executor.shutdown();
+
+        Thread.sleep(300);
+        assertNotNull(shiftRepository.findActiveShiftByEmployeeId(busy.getId()).orElse(null));
+        assertNull(shiftRepository.findActiveShiftByEmployeeId(waiting.getId()).orElse(null));
+        shiftService.clockOut(busy.getId());
+    }
+
+    @Test
+    void clockOutWithoutOpenShiftFails() {
+        Employee employee = employeeRepository.save(TestData.employee("pipeline-idle").build());
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> shiftWritePipeline.clockOut(employee.getId()));
+        assertEquals("No active shift found", error.getMessage());
+    }
+}
@@ -0,0 +1,56 @@
+package com.restaurant.shifttracker.util;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JwtUtilTest {
+
+    private static final String SECRET = "testSecretKeyForJWTTokenGenerationAndValidation123456789";
+
+    @Test
+    void parsesTokenOnceAndServesPrincipalFromCache() {
+        JwtUtil jwtUtil = newJwtUtil(60_000L);
+        String token = jwtUtil.generateToken("alice", "EMPLOYEE", 42L, 7L);
+
+        JwtPrincipal first = jwtUtil.parseToken(token);
+        JwtPrincipal second = jwtUtil.parseToken(token);
+
+        assertSame(first, second);
+        assertEquals("alice", first.username());
+        assertEquals("EMPLOYEE", first.role());
+        assertEquals(42L, first.userId());
+        assertEquals(7L, first.locationId());
+    }
+
+    @Test
+    void rejectsTamperedToken() {
+        JwtUtil jwtUtil = newJwtUtil(60_000L);
+        String token = jwtUtil.generateToken("alice", "EMPLOYEE", 42L, 7L);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThrows(SignatureException.class, () -> jwtUtil.parseToken(tampered));
+    }
+
+    @Test
+    void rejectsExpiredToken() {
+        JwtUtil jwtUtil = newJwtUtil(-1_000L);
+        String token = jwtUtil.generateToken("alice", "EMPLOYEE", 42L, 7L);
+
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.parseToken(token));
+    }
+
+    private JwtUtil newJwtUtil(long expiration) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", expiration);
+        ReflectionTestUtils.setField(jwtUtil, "cacheMaxSize", 100L);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+}
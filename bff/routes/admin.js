@@ -1,5 +1,6 @@
 import express from 'express';
 import employeeService from '../services/employeeService.js';
+import shiftService from '../services/shiftService.js';
 import { attachToken } from '../middleware/auth.js';
 
 const router = express.Router();
@@ -7,6 +8,29 @@ const router = express.Router();
 // All admin routes require authentication
 router.use(attachToken);
 
+// Client headers a conditional backend request depends on
+const conditionalHeaders = (req) => ({
+  ifNoneMatch: req.get('If-None-Match'),
+  accept: req.get('Accept'),
+});
+
+// Relays a conditional backend response: its ETag, Cache-Control and Vary,
+// and either the body (JSON, or CBOR bytes as they came) or an empty 304
+const sendConditional = (res, response) => {
+  ['etag', 'cache-control', 'vary'].forEach((header) => {
+    if (response.headers[header]) {
+      res.set(header, response.headers[header]);
+    }
+  });
+  if (response.status === 304) {
+    return res.status(304).end();
+  }
+  if (response.data instanceof ArrayBuffer || Buffer.isBuffer(response.data)) {
+    return res.type(response.headers['content-type']).send(Buffer.from(response.data));
+  }
+  res.json(response.data);
+};
+
 /**
  * GET /api/admin/employees
  * Get all employees
@@ -17,8 +41,8 @@ router.get('/employees', async (req, res) => {
       return res.status(401).json({ error: 'Authentication required' });
     }
 
-    const employees = await employeeService.getAllEmployees(req.token);
-    res.json(employees);
+    const response = await employeeService.getAllEmployees(req.token, conditionalHeaders(req));
+    sendConditional(res, response);
   } catch (error) {
     console.error('Get employees error:', error);
     const status = error.status || 500;
@@ -111,7 +135,8 @@ router.delete('/employees/:id', async (req, res) => {
 
 /**
  * GET /api/admin/weekly-hours
- * Get all employees' weekly hours
+ * Get all employees' weekly hours (?shape=compact for the deduplicated shape,
+ * Accept: application/cbor for CBOR)
  */
 router.get('/weekly-hours', async (req, res) => {
   try {
@@ -119,8 +144,10 @@ router.get('/weekly-hours', async (req, res) => {
       return res.status(401).json({ error: 'Authentication required' });
     }
 
-    const weeklyHours = await employeeService.getAllEmployeesWeeklyHours(req.token);
-    res.json(weeklyHours);
+    const { shape, includeShifts } = req.query;
+    const response = await employeeService.getAllEmployeesWeeklyHours(req.token, conditionalHeaders(req),
+      { shape, includeShifts });
+    sendConditional(res, response);
   } catch (error) {
     console.error('Get weekly hours error:', error);
     const status = error.status || 500;
@@ -129,6 +156,35 @@ router.get('/weekly-hours', async (req, res) => {
   }
 });
 
+/**
+ * GET /api/admin/events
+ * Live clock-in/clock-out events for all employees (server-sent events)
+ */
+router.get('/events', async (req, res) => {
+  if (!req.token) {
+    return res.status(401).json({ error: 'Authentication required' });
+  }
+
+  try {
+    const stream = await shiftService.openEventStream(req.token, '/api/admin/events');
+    res.writeHead(200, {
+      'Content-Type': 'text/event-stream',
+      'Cache-Control': 'no-cache',
+      Connection: 'keep-alive',
+      'X-Accel-Buffering': 'no',
+    });
+    stream.pipe(res);
+    // Client went away: release the backend subscription straight away
+    req.on('close', () => stream.destroy());
+    stream.on('error', () => res.end());
+  } catch (error) {
+    console.error('Event stream error:', error);
+    const status = error.status || 500;
+    const message = error.message || 'Failed to open event stream';
+    res.status(status).json({ error: message });
+  }
+});
+
 export default router;
 
 
@@ -15,7 +15,7 @@ router.post('/login', async (req, res) => {
       return res.status(400).json({ error: 'Username and password are required' });
     }
 
-    const loginResponse = await authService.login(username, password);
+    const loginResponse = await authService.login(username, password, req.ip);
     res.json(loginResponse);
   } catch (error) {
     console.error('Login error:', error);
@@ -9,7 +9,8 @@ router.use(attachToken);
 
 /**
  * POST /api/shifts/clock-in
- * Clock in for current user
+ * Clock in for current user. An Idempotency-Key header is passed through so
+ * that retries return the original response.
  */
 router.post('/clock-in', async (req, res) => {
   try {
@@ -17,7 +18,7 @@ router.post('/clock-in', async (req, res) => {
       return res.status(401).json({ error: 'Authentication required' });
     }
 
-    const shift = await shiftService.clockIn(req.token);
+    const shift = await shiftService.clockIn(req.token, req.get('Idempotency-Key'));
     res.status(201).json(shift);
   } catch (error) {
     console.error('Clock in error:', error);
@@ -29,7 +30,7 @@ router.post('/clock-in', async (req, res) => {
 
 /**
  * POST /api/shifts/clock-out
- * Clock out for current user
+ * Clock out for current user (Idempotency-Key passed through as for clock-in)
  */
 router.post('/clock-out', async (req, res) => {
   try {
@@ -37,7 +38,7 @@ router.post('/clock-out', async (req, res) => {
       return res.status(401).json({ error: 'Authentication required' });
     }
 
-    const shift = await shiftService.clockOut(req.token);
+    const shift = await shiftService.clockOut(req.token, req.get('Idempotency-Key'));
     res.json(shift);
   } catch (error) {
     console.error('Clock out error:', error);
@@ -71,6 +72,35 @@ router.get('/active', async (req, res) => {
   }
 });
 
+/**
+ * GET /api/shifts/events
+ * Live clock-in/clock-out events for current user (server-sent events)
+ */
+router.get('/events', async (req, res) => {
+  if (!req.token) {
+    return res.status(401).json({ error: 'Authentication required' });
+  }
+
+  try {
+    const stream = await shiftService.openEventStream(req.token, '/api/shifts/events');
+    res.writeHead(200, {
+      'Content-Type': 'text/event-stream',
+      'Cache-Control': 'no-cache',
+      Connection: 'keep-alive',
+      'X-Accel-Buffering': 'no',
+    });
+    stream.pipe(res);
+    // Client went away: release the backend subscription straight away
+    req.on('close', () => stream.destroy());
+    stream.on('error', () => res.end());
+  } catch (error) {
+    console.error('Event stream error:', error);
+    const status = error.status || 500;
+    const message = error.message || 'Failed to open event stream';
+    res.status(status).json({ error: message });
+  }
+});
+
 /**
  * GET /api/shifts/weekly-hours
  * Get weekly hours for current user
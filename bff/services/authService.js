@@ -5,13 +5,16 @@ class AuthService {
    * Login user via Spring Boot backend
    * @param {string} username 
    * @param {string} password 
+   * @param {string} [clientIp] - Browser IP, forwarded for backend login throttling
    * @returns {Promise<Object>} Login response with token and user info
    */
-  async login(username, password) {
+  async login(username, password, clientIp) {
     try {
       const response = await springBootClient.post('/api/auth/login', {
         username,
         password,
+      }, {
+        headers: clientIp ? { 'X-Forwarded-For': clientIp } : {},
       });
       return response.data;
     } catch (error) {
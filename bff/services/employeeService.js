@@ -1,20 +1,36 @@
 import springBootClient from '../config/springBootClient.js';
 
+/**
+ * Conditional GET: forwards the client's If-None-Match and Accept and resolves
+ * with the whole backend response, so a 304 (no body) or a CBOR body (kept as
+ * raw bytes) can be passed straight through.
+ */
+const conditionalGet = (path, token, { ifNoneMatch, accept, params } = {}) => {
+  const headers = { Authorization: `Bearer ${token}` };
+  if (ifNoneMatch) {
+    headers['If-None-Match'] = ifNoneMatch;
+  }
+  const cbor = Boolean(accept && accept.includes('application/cbor'));
+  if (cbor) {
+    headers.Accept = accept;
+  }
+  return springBootClient.get(path, {
+    headers,
+    params,
+    responseType: cbor ? 'arraybuffer' : 'json',
+    validateStatus: (status) => (status >= 200 && status < 300) || status === 304,
+  });
+};
+
 class EmployeeService {
   /**
    * Get all employees
    * @param {string} token - JWT token
-   * @returns {Promise<Array>} List of employees
+   * @param {Object} [conditional] - Client's ifNoneMatch and accept, if any
+   * @returns {Promise<Object>} Backend response (status 200 with the list, or 304)
    */
-  async getAllEmployees(token) {
-    try {
-      const response = await springBootClient.get('/api/admin/employees', {
-        headers: { Authorization: `Bearer ${token}` },
-      });
-      return response.data;
-    } catch (error) {
-      throw error;
-    }
+  async getAllEmployees(token, conditional) {
+    return conditionalGet('/api/admin/employees', token, conditional);
   }
 
   /**
@@ -71,17 +87,12 @@ class EmployeeService {
   /**
    * Get all employees' weekly hours
    * @param {string} token - JWT token
-   * @returns {Promise<Array>} Weekly hours data for all employees
+   * @param {Object} [conditional] - Client's ifNoneMatch and accept, if any
+   * @param {Object} [query] - shape=compact and includeShifts, passed through
+   * @returns {Promise<Object>} Backend response (status 200 with the report, or 304)
    */
-  async getAllEmployeesWeeklyHours(token) {
-    try {
-      const response = await springBootClient.get('/api/admin/weekly-hours', {
-        headers: { Authorization: `Bearer ${token}` },
-      });
-      return response.data;
-    } catch (error) {
-      throw error;
-    }
+  async getAllEmployeesWeeklyHours(token, conditional, query) {
+    return conditionalGet('/api/admin/weekly-hours', token, { ...conditional, params: query });
   }
 }
 
@@ -1,15 +1,19 @@
 import springBootClient from '../config/springBootClient.js';
 
+const withIdempotencyKey = (headers, idempotencyKey) =>
+  idempotencyKey ? { ...headers, 'Idempotency-Key': idempotencyKey } : headers;
+
 class ShiftService {
   /**
    * Clock in
    * @param {string} token - JWT token
+   * @param {string} [idempotencyKey] - Client's Idempotency-Key, if any
    * @returns {Promise<Object>} Shift data
    */
-  async clockIn(token) {
+  async clockIn(token, idempotencyKey) {
     try {
       const response = await springBootClient.post('/api/shifts/clock-in', {}, {
-        headers: { Authorization: `Bearer ${token}` },
+        headers: withIdempotencyKey({ Authorization: `Bearer ${token}` }, idempotencyKey),
       });
       return response.data;
     } catch (error) {
@@ -20,12 +24,13 @@ class ShiftService {
   /**
    * Clock out
    * @param {string} token - JWT token
+   * @param {string} [idempotencyKey] - Client's Idempotency-Key, if any
    * @returns {Promise<Object>} Shift data
    */
-  async clockOut(token) {
+  async clockOut(token, idempotencyKey) {
     try {
       const response = await springBootClient.post('/api/shifts/clock-out', {}, {
-        headers: { Authorization: `Bearer ${token}` },
+        headers: withIdempotencyKey({ Authorization: `Bearer ${token}` }, idempotencyKey),
       });
       return response.data;
     } catch (error) {
@@ -52,6 +57,24 @@ class ShiftService {
     }
   }
 
+  /**
+   * Open a server-sent event stream on the backend
+   * @param {string} token - JWT token
+   * @param {string} path - '/api/shifts/events' or '/api/admin/events'
+   * @returns {Promise<import('stream').Readable>} Raw event stream
+   */
+  async openEventStream(token, path) {
+    const response = await springBootClient.get(path, {
+      headers: {
+        Authorization: `Bearer ${token}`,
+        Accept: 'text/event-stream',
+      },
+      responseType: 'stream',
+      timeout: 0, // the stream stays open; the backend sends keep-alives
+    });
+    return response.data;
+  }
+
   /**
    * Get weekly hours for current user
    * @param {string} token - JWT token
@@ -5,26 +5,163 @@ USE shift_tracker;
 -- Employees Table
 CREATE TABLE employees (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    -- Restaurant location (tenant); every application query is scoped to the caller's
+    location_id BIGINT NOT NULL DEFAULT 1,
     name VARCHAR(100) NOT NULL,
     username VARCHAR(50) NOT NULL UNIQUE,
     password VARCHAR(255) NOT NULL,
     role ENUM('ADMIN', 'EMPLOYEE') NOT NULL DEFAULT 'EMPLOYEE',
     is_active BOOLEAN DEFAULT TRUE,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    INDEX idx_employee_location_role (location_id, role)
 );
 
 -- Shifts Table
 CREATE TABLE shifts (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     employee_id BIGINT NOT NULL,
+    -- Copy of the employee's location, so location-scoped scans need no join
+    location_id BIGINT NOT NULL DEFAULT 1,
     clock_in TIMESTAMP NOT NULL,
     clock_out TIMESTAMP NULL,
-    total_hours DECIMAL(5,2) NULL,
+    -- Whole minutes worked; NULL while the shift is open. Hours are derived in the API.
+    total_minutes INT NULL,
+    -- 1 while the shift is open, NULL once closed (NULLs never collide in a unique key)
+    open_marker TINYINT GENERATED ALWAYS AS (CASE WHEN clock_out IS NULL THEN 1 ELSE NULL END) STORED,
+    -- yyyymm of clock_in once closed, 0 while open: the monthly partitioning key
+    archive_month INT GENERATED ALWAYS AS (CASE WHEN clock_out IS NULL THEN 0 ELSE EXTRACT(YEAR_MONTH FROM clock_in) END) STORED,
+    -- AUTO_CLOSED or OVERLONG when the sweeper found the shift open past the maximum length
+    anomaly VARCHAR(20) NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     FOREIGN KEY (employee_id) REFERENCES employees(id) ON DELETE CASCADE,
+    -- At most one open shift per employee; clock-in relies on this instead of a pre-read
+    UNIQUE KEY uk_shift_open (employee_id, open_marker),
     INDEX idx_employee_id (employee_id),
-    INDEX idx_clock_in (clock_in)
+    INDEX idx_clock_in (clock_in),
+    INDEX idx_employee_clock_in (employee_id, clock_in),
+    INDEX idx_location_clock_in (location_id, clock_in),
+    -- Open shifts (clock_out IS NULL) by age, for the forgotten clock-out sweep
+    INDEX idx_clock_out_clock_in (clock_out, clock_in)
+);
+
+-- Optional: partition shifts by month on large deployments (then set
+-- shift.partitioning.enabled=true). Closed shifts land in one partition per
+-- month of clock_in, open shifts in p_open; the scheduled maintenance splits
+-- new months off p_future ahead of time and, with shift.archive.retention-months,
+-- archives old months to shift.archive.dir and drops their partitions.
+-- MySQL does not allow foreign keys on partitioned tables and requires the
+-- partitioning column in every unique key, so this means (the application
+-- deletes an employee's shifts itself):
+--   ALTER TABLE shifts DROP FOREIGN KEY <shifts_ibfk_1>;
+--   ALTER TABLE shifts DROP PRIMARY KEY, ADD PRIMARY KEY (id, archive_month);
+--   ALTER TABLE shifts DROP INDEX uk_shift_open,
+--       ADD UNIQUE KEY uk_shift_open (employee_id, open_marker, archive_month);
+--   ALTER TABLE shifts PARTITION BY RANGE (archive_month) (
+--       PARTITION p_open VALUES LESS THAN (1),
+--       PARTITION p202501 VALUES LESS THAN (202502),
+--       ...one per month up to the current one...
+--       PARTITION p_future VALUES LESS THAN MAXVALUE);
+-- uk_shift_open still allows one open shift per employee, since every open
+-- shift has archive_month = 0. Multi-site deployments can add
+-- SUBPARTITION BY KEY (location_id) after putting location_id in the keys too.
+--
+-- Databases created before archive_month existed:
+--   ALTER TABLE shifts ADD COLUMN archive_month INT GENERATED ALWAYS AS
+--       (CASE WHEN clock_out IS NULL THEN 0 ELSE EXTRACT(YEAR_MONTH FROM clock_in) END) STORED;
+
+
+-- Employee id allocation (Hibernate table-backed sequence, blocks of 50).
+-- Lets bulk employee imports be JDBC-batched; seeded a block past any existing
+-- ids. On startup the application (IdSequenceSeeder) moves it forward again if
+-- it lags, e.g. when ddl-auto created it on a database that already had rows.
+CREATE TABLE employee_seq (
+    next_val BIGINT NOT NULL
+);
+INSERT INTO employee_seq (next_val) SELECT COALESCE(MAX(id), 0) + 51 FROM employees;
+
+-- Shift id allocation (Hibernate table-backed sequence, blocks of 50).
+-- Lets shift inserts be JDBC-batched; seeded like employee_seq.
+CREATE TABLE shift_seq (
+    next_val BIGINT NOT NULL
 );
+INSERT INTO shift_seq (next_val) SELECT COALESCE(MAX(id), 0) + 51 FROM shifts;
+
+-- Weekly Hours Summary Table
+-- One row per employee and ISO week (yyyyww), maintained on clock-out.
+-- When the application starts and finds it empty (e.g. just added to an
+-- existing database) it rebuilds the last weekly-hours.summary.rebuild-weeks
+-- weeks; rebuild older weeks with POST /api/admin/weekly-hours/rebuild?weeks=N.
+CREATE TABLE weekly_hours_summary (
+    employee_id BIGINT NOT NULL,
+    iso_week INT NOT NULL,
+    total_minutes BIGINT NOT NULL DEFAULT 0,
+    shift_count INT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (employee_id, iso_week),
+    FOREIGN KEY (employee_id) REFERENCES employees(id) ON DELETE CASCADE,
+    INDEX idx_iso_week (iso_week)
+);
+
+-- Shift Events Table (append-only journal)
+-- One row per clock-in, clock-out and correction, holding the shift's state
+-- after the event. The application still writes shifts and
+-- weekly_hours_summary directly and adds the event in the same transaction;
+-- the journal is the history both can be rebuilt from.
+-- Rows are never removed: archiving a shift or deleting its employee appends
+-- a final ARCHIVE or DELETE event. anomaly is set only on the event that
+-- marked one (FLAG, auto-close).
+CREATE TABLE shift_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    event_type VARCHAR(16) NOT NULL,
+    shift_id BIGINT NOT NULL,
+    employee_id BIGINT NOT NULL,
+    location_id BIGINT NOT NULL,
+    clock_in TIMESTAMP NOT NULL,
+    clock_out TIMESTAMP NULL,
+    total_minutes INT NULL,
+    anomaly VARCHAR(20) NULL,
+    recorded_at TIMESTAMP NOT NULL,
+    recorded_by BIGINT NULL,
+    INDEX idx_shift_events_employee (employee_id, id),
+    INDEX idx_shift_events_shift (shift_id, id)
+);
+
+-- Journal position up to which shifts and weekly_hours_summary are known to match it
+CREATE TABLE shift_journal_checkpoint (
+    name VARCHAR(50) PRIMARY KEY,
+    last_event_id BIGINT NOT NULL,
+    updated_at TIMESTAMP NULL
+);
+
+-- Change Counters Table
+-- Version per location and scope (EMPLOYEES, SHIFTS), bumped by every write;
+-- the admin reports derive their ETags from it. Location 0 counts for all.
+CREATE TABLE change_counters (
+    location_id BIGINT NOT NULL,
+    scope VARCHAR(20) NOT NULL,
+    version BIGINT NOT NULL,
+    PRIMARY KEY (location_id, scope)
+);
+
+-- Upgrading a database created with DECIMAL hour columns:
+--   ALTER TABLE shifts ADD COLUMN total_minutes INT NULL AFTER clock_out;
+--   UPDATE shifts SET total_minutes = TIMESTAMPDIFF(MINUTE, clock_in, clock_out) WHERE clock_out IS NOT NULL;
+--   ALTER TABLE shifts DROP COLUMN total_hours;
+--   ALTER TABLE weekly_hours_summary ADD COLUMN total_minutes BIGINT NOT NULL DEFAULT 0 AFTER iso_week;
+--   ALTER TABLE weekly_hours_summary DROP COLUMN total_hours;
+-- then rebuild the summary (POST /api/admin/weekly-hours/rebuild).
+
+-- Upgrading a database created before locations existed (all rows join location 1):
+--   ALTER TABLE employees ADD COLUMN location_id BIGINT NOT NULL DEFAULT 1 AFTER id,
+--       ADD INDEX idx_employee_location_role (location_id, role);
+--   ALTER TABLE shifts ADD COLUMN location_id BIGINT NOT NULL DEFAULT 1 AFTER employee_id,
+--       ADD INDEX idx_location_clock_in (location_id, clock_in);
+
+-- Upgrading a database created before the forgotten clock-out sweep:
+--   ALTER TABLE shifts ADD COLUMN anomaly VARCHAR(20) NULL AFTER archive_month,
+--       ADD INDEX idx_clock_out_clock_in (clock_out, clock_in);
 
+-- Upgrading a database whose shift_events predates journalled anomalies:
+--   ALTER TABLE shift_events ADD COLUMN anomaly VARCHAR(20) NULL AFTER total_minutes;
@@ -1,6 +1,9 @@
 // Base URL for API calls (BFF)
 export const API_BASE_URL = import.meta.env.VITE_API_URL || "http://localhost:3000/api";
 
+// Attempts per clock-in or clock-out when the request never got an answer
+const IDEMPOTENT_ATTEMPTS = 3;
+
 
 export interface LoginRequest {
   username: string;
@@ -66,6 +69,27 @@ class ApiService {
     return headers;
   }
 
+  // One key per user action: it is created once per clock-in or clock-out
+  // and every retry of that request sends it again, so the server runs the
+  // action once and replays its response. Only network failures (fetch
+  // rejecting with a TypeError) are retried, and only with a key;
+  // randomUUID only exists in secure contexts.
+  private async idempotentPost<T>(endpoint: string): Promise<T> {
+    const headers: Record<string, string> = typeof crypto.randomUUID === 'function'
+      ? { 'Idempotency-Key': crypto.randomUUID() }
+      : {};
+    for (let attempt = 1; ; attempt++) {
+      try {
+        return await this.request<T>(endpoint, { method: 'POST', headers });
+      } catch (error) {
+        if (!(error instanceof TypeError) || !headers['Idempotency-Key'] || attempt >= IDEMPOTENT_ATTEMPTS) {
+          throw error;
+        }
+        await new Promise((resolve) => setTimeout(resolve, 500 * attempt));
+      }
+    }
+  }
+
   private async request<T>(
   endpoint: string,
   options: RequestInit = {}
@@ -163,15 +187,11 @@ class ApiService {
 
   // Employee endpoints
   async clockIn(): Promise<ShiftResponse> {
-    return this.request<ShiftResponse>('/shifts/clock-in', {
-      method: 'POST',
-    });
+    return this.idempotentPost<ShiftResponse>('/shifts/clock-in');
   }
 
   async clockOut(): Promise<ShiftResponse> {
-    return this.request<ShiftResponse>('/shifts/clock-out', {
-      method: 'POST',
-    });
+    return this.idempotentPost<ShiftResponse>('/shifts/clock-out');
   }
 
   async getActiveShift(): Promise<ShiftResponse | null> {